@@ -0,0 +1,62 @@
+package byow.Benchmark;
+
+import byow.Core.BatchSimulation;
+import byow.Core.WorldConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class measures the sessions per second of a BatchSimulation of the default worlds.
+ * Usage: java byow.Benchmark.BatchBenchmark [sessions] [threads] [moves]
+ * Every session is a new game of its own seed and random moves. The batch runs some rounds, the first rounds
+ * warm up the JIT, and the fastest round is printed. The hashes of the rounds must be the same.
+ */
+public class BatchBenchmark {
+
+    /**
+     * The default count of sessions of a round.
+     */
+    private static final int DEFAULT_SESSIONS = 10_000;
+    /**
+     * The default count of moves of a session.
+     */
+    private static final int DEFAULT_MOVES = 200;
+    /**
+     * The count of rounds.
+     */
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SESSIONS;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int moves = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MOVES;
+        List<String> inputs = new ArrayList<>();
+        Random rand = new Random(sessions);
+        for (int i = 0; i < sessions; i++) {
+            StringBuilder commands = new StringBuilder();
+            for (int j = 0; j < moves; j++) {
+                commands.append("wasd".charAt(rand.nextInt(4)));
+            }
+            inputs.add(BatchSimulation.job(i, commands.toString()));
+        }
+        BatchSimulation batch = new BatchSimulation(threads, WorldConfig.DEFAULT);
+        long best = Long.MAX_VALUE;
+        long[] first = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long[] hashes = batch.hashAll(inputs);
+            best = Math.min(best, System.nanoTime() - start);
+            if (first == null) {
+                first = hashes;
+            } else if (!Arrays.equals(first, hashes)) {
+                throw new IllegalStateException("The hashes of round " + round + " are different.");
+            }
+        }
+        batch.close();
+        System.out.printf("%d sessions of %d moves by %d threads: %.1f ms, %.0f sessions/s%n",
+                sessions, moves, threads, best / 1e6, sessions / (best / 1e9));
+    }
+}
@@ -0,0 +1,202 @@
+package byow.Benchmark;
+
+import byow.Core.World.DisjointSet;
+
+import java.util.Random;
+
+/**
+ * This class compares the DisjointSet with the former recursive one of KruskalForMst.
+ * Usage: java byow.Benchmark.DisjointSetBenchmark [elements]
+ * The default count of elements is 1M. Every workload runs some rounds and the fastest round is printed.
+ * A workload of the former one is stopped after TIME_LIMIT_MS, or when the call stack overflows.
+ */
+public class DisjointSetBenchmark {
+
+    /**
+     * The seed of the random workloads, so the runs are repeatable.
+     */
+    private static final long SEED = 61;
+    /**
+     * The default count of elements.
+     */
+    private static final int DEFAULT_ELEMENTS = 1_000_000;
+    /**
+     * The count of rounds of a workload.
+     */
+    private static final int ROUNDS = 5;
+    /**
+     * The max time of a round.
+     */
+    private static final long TIME_LIMIT_MS = 10_000;
+
+    /**
+     * The operations of a disjoint set that the workloads use.
+     */
+    private interface UnionFind {
+        boolean isConnected(int element1, int element2);
+        void connect(int element1, int element2);
+    }
+
+    /**
+     * The former DisjointSet of KruskalForMst, that has a recursive find without path compression.
+     */
+    private static class LegacyDisjointSet implements UnionFind {
+
+        /**
+         * An array of all the points with parent point.
+         */
+        private final int[] points;
+
+        /**
+         * Build an array to save the DJS, and set the value to their index.
+         */
+        public LegacyDisjointSet(int volume) {
+            points = new int[volume];
+            for (int i = 0; i < volume; i++) {
+                points[i] = i;
+            }
+        }
+
+        /**
+         * Return the root point of the point.
+         */
+        public int find(int iPoint) {
+            if (points[iPoint] == iPoint) {
+                return iPoint;
+            }
+            return find(points[iPoint]);
+        }
+
+        @Override
+        public boolean isConnected(int iPoint1, int iPoint2) {
+            return find(iPoint1) == find(iPoint2);
+        }
+
+        @Override
+        public void connect(int iPoint1, int iPoint2) {
+            points[find(iPoint2)] = points[find(iPoint1)];
+        }
+    }
+
+    /**
+     * The DisjointSet of the package World.
+     */
+    private static class CurrentDisjointSet implements UnionFind {
+
+        /**
+         * The disjoint set to measure.
+         */
+        private final DisjointSet djs;
+
+        /**
+         * Build a DJS of the given count of elements.
+         */
+        public CurrentDisjointSet(int count) {
+            this.djs = new DisjointSet(count);
+        }
+
+        @Override
+        public boolean isConnected(int element1, int element2) {
+            return djs.isConnected(element1, element2);
+        }
+
+        @Override
+        public void connect(int element1, int element2) {
+            djs.connect(element1, element2);
+        }
+    }
+
+    public static void main(String[] args) {
+        int elements = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ELEMENTS;
+        System.out.printf("%-10s %-8s %12s%n", "workload", "set", "best ms");
+        for (String workload : new String[]{"random", "chain"}) {
+            run(workload, "legacy", elements);
+            run(workload, "current", elements);
+        }
+    }
+
+    /**
+     * Run the rounds of a workload by a set, and print the fastest round.
+     */
+    private static void run(String workload, String set, int elements) {
+        long best = Long.MAX_VALUE;
+        String result = null;
+        try {
+            for (int i = 0; i < ROUNDS && result == null; i++) {
+                UnionFind uf = set.equals("legacy") ? new LegacyDisjointSet(elements) : new CurrentDisjointSet(elements);
+                long start = System.nanoTime();
+                long deadline = start + TIME_LIMIT_MS * 1_000_000L;
+                boolean isFinished = workload.equals("random")
+                        ? runRandom(uf, elements, deadline)
+                        : runChain(uf, elements, deadline);
+                if (isFinished) {
+                    best = Math.min(best, System.nanoTime() - start);
+                } else {
+                    result = "> " + TIME_LIMIT_MS;
+                }
+            }
+            if (result == null) {
+                result = String.valueOf(best / 1_000_000L);
+            }
+        } catch (StackOverflowError e) {
+            result = "stack overflow";
+        }
+        System.out.printf("%-10s %-8s %12s%n", workload, set, result);
+    }
+
+    /**
+     * Connect the given count of random pairs, then check the given count of random pairs.
+     * Return false if the round is stopped by the deadline.
+     */
+    private static boolean runRandom(UnionFind uf, int elements, long deadline) {
+        Random rand = new Random(SEED);
+        for (int i = 0; i < elements; i++) {
+            uf.connect(rand.nextInt(elements), rand.nextInt(elements));
+            if (isOverTime(i, deadline)) {
+                return false;
+            }
+        }
+        int connected = 0;
+        for (int i = 0; i < elements; i++) {
+            if (uf.isConnected(rand.nextInt(elements), rand.nextInt(elements))) {
+                connected++;
+            }
+            if (isOverTime(i, deadline)) {
+                return false;
+            }
+        }
+        if (connected < 0) {
+            throw new AssertionError();
+        }
+        return true;
+    }
+
+    /**
+     * Connect every element to the next one, that is the worst case of a set without balance,
+     * then check every element with the first one. Return false if the round is stopped by the deadline.
+     */
+    private static boolean runChain(UnionFind uf, int elements, long deadline) {
+        for (int i = 0; i + 1 < elements; i++) {
+            uf.connect(i + 1, i);
+            if (isOverTime(i, deadline)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < elements; i++) {
+            if (!uf.isConnected(0, i)) {
+                throw new AssertionError("The chain is broken at " + i + ".");
+            }
+            if (isOverTime(i, deadline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return true if the round is over the deadline, that is checked every 1024 operations.
+     */
+    private static boolean isOverTime(int i, long deadline) {
+        return (i & 1023) == 0 && System.nanoTime() > deadline;
+    }
+}
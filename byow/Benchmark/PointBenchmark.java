@@ -0,0 +1,140 @@
+package byow.Benchmark;
+
+import byow.Core.Point;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
+import byow.Core.World.Frame;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * This class measures the time and the allocated bytes of the neighbour scans of the tiles,
+ * by the former points and by the border masks and offsets of the WorldConfig, then of the hallways of worlds.
+ * Usage: java byow.Benchmark.PointBenchmark [cells]
+ * The default count of cells is 1M. Every workload runs some rounds and the fastest round is printed,
+ * the bytes are counted by com.sun.management.ThreadMXBean of the current thread.
+ */
+public class PointBenchmark {
+
+    /**
+     * The seed of every world, so the runs are repeatable.
+     */
+    private static final long SEED = 61;
+    /**
+     * The default count of cells of the world.
+     */
+    private static final long DEFAULT_CELLS = 1_000_000L;
+    /**
+     * The count of rounds of a workload.
+     */
+    private static final int ROUNDS = 5;
+    /**
+     * The ways to create the hallways of a world.
+     */
+    private static final int NO_HALLWAYS = 0;
+    private static final int ROUTER = 1;
+    private static final int A_STAR = 2;
+    /**
+     * The bean that counts the allocated bytes of a thread.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * A workload that returns a checksum, so its work is not removed by the JIT.
+     */
+    private interface Workload {
+        long run();
+    }
+
+    public static void main(String[] args) {
+        long cells = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_CELLS;
+        int side = (int) Math.round(Math.sqrt(cells));
+        WorldConfig config = new WorldConfig(side, side);
+        WorldGrid grid = new WorldGrid(config);
+        Frame frame = new Frame(new Random(SEED), grid);
+        frame.generateRooms();
+        System.out.printf("%-22s %13s %10s %14s %12s%n", "workload", "world", "ms", "bytes", "bytes/tile");
+        run("scan by points", config, () -> scanByPoints(grid));
+        run("scan by masks", config, () -> scanByMasks(grid));
+        run("rooms only", config, () -> generateWorld(config, NO_HALLWAYS));
+        run("rooms + router", config, () -> generateWorld(config, ROUTER));
+        run("rooms + A*", config, () -> generateWorld(config, A_STAR));
+    }
+
+    /**
+     * Run the workload some rounds and print the fastest one.
+     */
+    private static void run(String name, WorldConfig config, Workload workload) {
+        long bestTime = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            checksum += workload.run();
+            long time = System.nanoTime() - start;
+            long bytes = THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            bestTime = Math.min(bestTime, time);
+            bestBytes = Math.min(bestBytes, bytes);
+        }
+        System.out.printf("%-22s %13s %10d %14d %12.2f%n", name, config,
+                bestTime / 1_000_000L, bestBytes, (double) bestBytes / config.getVolume());
+        if (checksum == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Count the empty neighbours of every tile by the points, the same as the former hallways did.
+     */
+    private static long scanByPoints(WorldGrid grid) {
+        WorldConfig config = grid.getConfig();
+        long count = 0;
+        for (int iPoint = 0; iPoint < config.getVolume(); iPoint++) {
+            Point point = new Point(iPoint, config);
+            for (int direction = Point.NORTH; direction < Point.DIRECTION_INIT; direction++) {
+                Point neighbour = point.getNextPoint(direction);
+                if (Point.checkBound(neighbour) && grid.isEmpty(neighbour.getIPoint())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the empty neighbours of every tile by the border masks and the offsets.
+     */
+    private static long scanByMasks(WorldGrid grid) {
+        WorldConfig config = grid.getConfig();
+        int[] offsets = config.getNeighbourOffsets();
+        long count = 0;
+        for (int iPoint = 0; iPoint < config.getVolume(); iPoint++) {
+            int mask = config.getBorderMask(iPoint);
+            for (int direction = Point.NORTH; direction < Point.DIRECTION_INIT; direction++) {
+                if ((mask & (1 << direction)) != 0 && grid.isEmpty(iPoint + offsets[direction])) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Generate a world and its hallways by the given way, the bytes of the hallways are
+     * the bytes of the world minus the bytes of "rooms only".
+     */
+    private static long generateWorld(WorldConfig config, int hallways) {
+        WorldGrid grid = new WorldGrid(config);
+        Frame frame = new Frame(new Random(SEED), grid);
+        frame.generateRooms();
+        if (hallways == ROUTER) {
+            frame.generateHallways();
+        } else if (hallways == A_STAR) {
+            frame.generateHallwaysByAStar();
+        }
+        return grid.contentHash();
+    }
+}
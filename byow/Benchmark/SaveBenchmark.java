@@ -0,0 +1,109 @@
+package byow.Benchmark;
+
+import byow.Core.Game;
+import byow.Core.WorldConfig;
+import byow.TileEngine.HeadlessRenderer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class compares the binary save files of Game with the former save of Java serialization.
+ * The delta save keeps the changes since the world was generated, and the full save keeps all the tiles.
+ * Usage: java byow.Benchmark.SaveBenchmark [cells...]
+ * The default sizes are the window of the game, 100K and 2M cells. Every size runs some rounds,
+ * and the fastest save and load of every format are printed with the size of the file.
+ */
+public class SaveBenchmark {
+
+    /**
+     * The seed of every game, so the runs are repeatable.
+     */
+    private static final long SEED = 61;
+    /**
+     * The default count of cells of the worlds.
+     */
+    private static final long[] DEFAULT_CELLS = {WorldConfig.DEFAULT.getVolume(), 100_000L, 2_000_000L};
+    /**
+     * The count of rounds of a size.
+     */
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<Long> cells = new ArrayList<>();
+        for (String arg : args) {
+            cells.add(Long.parseLong(arg));
+        }
+        if (cells.isEmpty()) {
+            for (long c : DEFAULT_CELLS) {
+                cells.add(c);
+            }
+        }
+        PrintStream out = System.out;
+        System.out.printf("%-13s %-8s %12s %10s %10s%n", "world", "format", "bytes", "save ms", "load ms");
+        for (long c : cells) {
+            WorldConfig config = c == WorldConfig.DEFAULT.getVolume() ? WorldConfig.DEFAULT : squareConfig(c);
+            // The game prints its vision on every render.
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            Game game = new Game(SEED, config, new HeadlessRenderer());
+            game.newWorld();
+            game.interactiveGame();
+            String world = config.getWidth() + "x" + config.getHeight();
+            for (String format : new String[]{"delta", "full", "java"}) {
+                File file = File.createTempFile("save", "." + format);
+                long[] times = run(game, file, format);
+                System.setOut(out);
+                print(world, format, file.length(), times);
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                file.delete();
+            }
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * Return the config of a square world of about the given count of cells.
+     */
+    private static WorldConfig squareConfig(long cells) {
+        int side = (int) Math.round(Math.sqrt((double) cells));
+        return new WorldConfig(side, side);
+    }
+
+    /**
+     * Save and load the game by the format some rounds, and return the fastest save and load in nanoseconds.
+     */
+    private static long[] run(Game game, File file, String format) throws IOException {
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            if (format.equals("java")) {
+                try (ObjectOutputStream stream = new ObjectOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(file)))) {
+                    stream.writeObject(game);
+                }
+            } else {
+                game.saveToFile(file, format.equals("delta"));
+            }
+            long saved = System.nanoTime();
+            Game.readFromFile(file, new HeadlessRenderer());
+            long loaded = System.nanoTime();
+            best[0] = Math.min(best[0], saved - start);
+            best[1] = Math.min(best[1], loaded - saved);
+        }
+        return best;
+    }
+
+    /**
+     * Print a row of the result.
+     */
+    private static void print(String world, String format, long bytes, long[] times) {
+        System.out.printf("%-13s %-8s %12d %10.2f %10.2f%n", world, format, bytes, times[0] / 1e6, times[1] / 1e6);
+    }
+}
@@ -0,0 +1,200 @@
+package byow.Benchmark;
+
+import byow.Core.MappedWorldGrid;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
+import byow.Core.WorldStore;
+import byow.Core.World.Frame;
+import byow.Core.World.ParallelFrame;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class measures the time and the heap of generating square worlds of different sizes.
+ * The peak heap is the sum of the peaks of the heap pools since the start of a world, so the scratch arrays
+ * of the generation are counted, it is a little more than the real peak since the pools may peak at other times.
+ * The kept heap is the heap that is still used after a full collection, that is mostly the grid.
+ * Usage: java byow.Benchmark.WorldGenBenchmark [--skip-hallways] [--astar] [--parallel] [--mapped] [--threads n]
+ * [cells...]
+ * The default sizes are 1M, 10M and 100M cells, the last one needs about -Xmx4g.
+ * --astar creates the hallways by the A* algorithm instead of the HallwayRouter.
+ * --parallel creates the world by the ParallelFrame on a pool of n threads, the default n is the count of cores.
+ * --mapped creates the world by the ParallelFrame into a temporary MappedWorldGrid, so the kept heap is only
+ * the scratch of the regions, and the grid column is the time to fill the file.
+ */
+public class WorldGenBenchmark {
+
+    /**
+     * The seed of every world, so the runs are repeatable.
+     */
+    private static final long SEED = 61;
+    /**
+     * The default count of cells of the worlds.
+     */
+    private static final long[] DEFAULT_CELLS = {1_000_000L, 10_000_000L, 100_000_000L};
+    /**
+     * The count of bytes of a MiB.
+     */
+    private static final double MIB = 1024.0 * 1024.0;
+    /**
+     * The memory pools of the heap, whose peaks are measured.
+     */
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+
+    public static void main(String[] args) {
+        boolean skipHallways = false;
+        boolean aStar = false;
+        boolean parallel = false;
+        boolean mapped = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Long> cells = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--skip-hallways" -> skipHallways = true;
+                case "--astar" -> aStar = true;
+                case "--parallel" -> parallel = true;
+                case "--mapped" -> mapped = true;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> cells.add(Long.parseLong(args[i]));
+            }
+        }
+        if (cells.isEmpty()) {
+            for (long c : DEFAULT_CELLS) {
+                cells.add(c);
+            }
+        }
+        System.out.printf("%-13s %10s %10s %10s %10s %10s %12s %12s%n",
+                "world", "cells", "grid ms", "rooms ms", "halls ms", "total ms", "peak MiB", "kept MiB");
+        ForkJoinPool pool = parallel || mapped ? new ForkJoinPool(threads) : null;
+        for (long c : cells) {
+            if (parallel || mapped) {
+                runParallel(c, pool, mapped);
+            } else {
+                run(c, skipHallways, aStar);
+            }
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Generate a square world with about the given count of cells and print the result.
+     */
+    private static void run(long cells, boolean skipHallways, boolean aStar) {
+        int side = (int) Math.round(Math.sqrt(cells));
+        WorldConfig config = new WorldConfig(side, side);
+        long heapBefore = resetPeakHeap();
+
+        long start = System.nanoTime();
+        WorldGrid grid = new WorldGrid(config);
+        long gridDone = System.nanoTime();
+        Frame frame = new Frame(new Random(SEED), grid);
+        frame.generateRooms();
+        long roomsDone = System.nanoTime();
+        if (!skipHallways && aStar) {
+            frame.generateHallwaysByAStar();
+        } else if (!skipHallways) {
+            frame.generateHallways();
+        }
+        long hallwaysDone = System.nanoTime();
+
+        long peak = peakHeap() - heapBefore;
+        long kept = usedHeap() - heapBefore;
+        System.out.printf("%-13s %10d %10d %10d %10s %10d %12.1f %12.1f%n",
+                config, config.getVolume(),
+                toMillis(gridDone - start), toMillis(roomsDone - gridDone),
+                skipHallways ? "-" : String.valueOf(toMillis(hallwaysDone - roomsDone)),
+                toMillis(hallwaysDone - start), peak / MIB, kept / MIB);
+        Reference.reachabilityFence(frame);
+        Reference.reachabilityFence(grid);
+    }
+
+    /**
+     * Generate a square world with about the given count of cells by the ParallelFrame and print the result,
+     * the world is in a temporary mapped file if mapped is true.
+     */
+    private static void runParallel(long cells, ForkJoinPool pool, boolean mapped) {
+        int side = (int) Math.round(Math.sqrt(cells));
+        WorldConfig config = new WorldConfig(side, side);
+        File file = mapped ? createTempFile() : null;
+        long heapBefore = resetPeakHeap();
+
+        long start = System.nanoTime();
+        WorldStore world = mapped ? MappedWorldGrid.create(file, config) : new WorldGrid(config);
+        long gridDone = System.nanoTime();
+        new ParallelFrame(SEED, world).create(pool);
+        long done = System.nanoTime();
+
+        long peak = peakHeap() - heapBefore;
+        long kept = usedHeap() - heapBefore;
+        System.out.printf("%-13s %10d %10d %10s %10s %10d %12.1f %12.1f%n",
+                config, config.getVolume(), toMillis(gridDone - start), "-", "-",
+                toMillis(done - start), peak / MIB, kept / MIB);
+        Reference.reachabilityFence(world);
+        if (file != null && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Return a new temporary file for a mapped world.
+     */
+    private static File createTempFile() {
+        try {
+            return File.createTempFile("world", ".map");
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Run a full collection and reset the peaks of the heap pools, and return the used heap.
+     */
+    private static long resetPeakHeap() {
+        long used = usedHeap();
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            pool.resetPeakUsage();
+        }
+        return used;
+    }
+
+    /**
+     * Return the sum of the peaks of the heap pools since they were reset.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    /**
+     * Return the used heap after a full collection.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Convert nanoseconds to milliseconds.
+     */
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+}
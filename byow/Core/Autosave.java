@@ -0,0 +1,106 @@
+package byow.Core;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class saves the snapshots of a game to a file on a background thread, so a save never blocks a move.
+ * Only the latest snapshot that is waiting is saved, the older ones are skipped.
+ * The file is written by SaveBuffer.writeFile, that renames a temporary file over it, so a crash
+ * during a save keeps the last save.
+ */
+public class Autosave {
+
+    /**
+     * The file to save.
+     */
+    private final File file;
+    /**
+     * The interval between two snapshots, in nanoseconds.
+     */
+    private final long interval;
+    /**
+     * The time of the last snapshot, in nanoseconds.
+     */
+    private long lastSaveTime;
+    /**
+     * The latest snapshot that is waiting to be saved, or null.
+     */
+    private final AtomicReference<Game> pending;
+    /**
+     * The background thread that saves the snapshots.
+     */
+    private final ExecutorService writer;
+
+    /**
+     * Create an autosave of the given file, that is due every given milliseconds.
+     */
+    public Autosave(File file, long intervalMillis) {
+        this.file = file;
+        this.interval = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.lastSaveTime = System.nanoTime();
+        this.pending = new AtomicReference<>();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Return true if the interval passed since the last snapshot.
+     */
+    public boolean isDue() {
+        return System.nanoTime() - lastSaveTime >= interval;
+    }
+
+    /**
+     * Save the snapshot on the background thread, it must not be changed later.
+     */
+    public void save(Game snapshot) {
+        lastSaveTime = System.nanoTime();
+        if (pending.getAndSet(snapshot) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Save the latest snapshot that is waiting, a failed save is reported and the game goes on.
+     */
+    private void writePending() {
+        Game snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            snapshot.writeSnapshot(file);
+        } catch (RuntimeException excp) {
+            System.err.println("Autosave failed: " + excp.getMessage());
+        }
+    }
+
+    /**
+     * Wait until the snapshots that are waiting are saved.
+     */
+    public void flush() {
+        try {
+            writer.submit(this::writePending).get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException excp) {
+            throw new IllegalStateException(excp.getCause());
+        }
+    }
+
+    /**
+     * Save the snapshots that are waiting, and stop the background thread.
+     */
+    public void close() {
+        flush();
+        writer.shutdown();
+    }
+}
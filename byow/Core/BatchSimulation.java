@@ -0,0 +1,109 @@
+package byow.Core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * This class runs many sessions of input strings, e.g. "n123swwdd", in parallel on a ForkJoinPool.
+ * A session is run by an Engine of a batch, so it draws nothing, prints nothing, never saves and never exits,
+ * and ':q' only ends the session. A session must start a new game, since loading a save reads a shared file.
+ */
+public class BatchSimulation {
+
+    /**
+     * The pool that runs the sessions.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The config of the finite worlds of the sessions.
+     */
+    private final WorldConfig config;
+
+    /**
+     * Create a batch that runs the sessions of the default worlds by all the processors.
+     */
+    public BatchSimulation() {
+        this(Runtime.getRuntime().availableProcessors(), WorldConfig.DEFAULT);
+    }
+
+    /**
+     * Create a batch that runs the sessions of the worlds of the given config by the given count of threads.
+     */
+    public BatchSimulation(int parallelism, WorldConfig config) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.config = config;
+    }
+
+    /**
+     * Return the input of the session of a new game of the seed and the commands after it.
+     */
+    public static String job(long seed, String commands) {
+        return "n" + seed + "s" + commands;
+    }
+
+    /**
+     * Return the game at the end of the session, or null if it started no game.
+     */
+    public Game simulate(String input) {
+        Engine engine = Engine.newBatchEngine(config);
+        engine.interactWithInputString(input);
+        return engine.getGame();
+    }
+
+    /**
+     * Return the games at the end of the sessions, in the order of the inputs.
+     */
+    public List<Game> simulateAll(List<String> inputs) {
+        Game[] games = new Game[inputs.size()];
+        run(inputs.size(), i -> games[i] = simulate(inputs.get(i)));
+        return new ArrayList<>(Arrays.asList(games));
+    }
+
+    /**
+     * Return the Game.contentHash of the games at the end of the sessions, in the order of the inputs,
+     * the hash of a session that started no game is 0. A game is dropped after its hash, so a batch
+     * of any size takes little memory.
+     */
+    public long[] hashAll(List<String> inputs) {
+        long[] hashes = new long[inputs.size()];
+        run(inputs.size(), i -> {
+            Game game = simulate(inputs.get(i));
+            hashes[i] = game == null ? 0 : game.contentHash();
+        });
+        return hashes;
+    }
+
+    /**
+     * Run the task of every index on the pool, and wait for all of them.
+     */
+    private void run(int count, IntConsumer task) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The batch was interrupted.");
+        } catch (ExecutionException excp) {
+            // the pool wraps the exception of a session, that is thrown again as it was
+            Throwable cause = excp.getCause();
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Stop the threads of the batch.
+     */
+    public void close() {
+        pool.shutdown();
+    }
+}
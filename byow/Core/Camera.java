@@ -0,0 +1,91 @@
+package byow.Core;
+
+/**
+ * This class represents the part of the world that is on the screen, by the X and Y of the world
+ * at the southwest of the view. The camera follows a point of the world by keeping it in the middle
+ * of the view, and a bounded world keeps the view inside the world, so a world can be larger than
+ * the window and only the tiles of the view are filled and rendered.
+ */
+public class Camera {
+
+    /**
+     * The size of the view.
+     */
+    private final WorldConfig view;
+    /**
+     * The size of a bounded world, or null if the world is infinite.
+     */
+    private final WorldConfig bounds;
+    /**
+     * The X and Y of the world at the southwest of the view.
+     */
+    private int x;
+    private int y;
+
+    /**
+     * Create a camera of the view that is at the southwest of the world,
+     * the view of a bounded world must not be larger than the world.
+     */
+    public Camera(WorldConfig view, WorldConfig bounds) {
+        if (bounds != null && (view.getWidth() > bounds.getWidth() || view.getHeight() > bounds.getHeight())) {
+            throw new IllegalArgumentException("The view is larger than the world.");
+        }
+        this.view = view;
+        this.bounds = bounds;
+        this.x = 0;
+        this.y = 0;
+    }
+
+    /**
+     * Return the view of a world of the given size that fits the window.
+     */
+    public static WorldConfig fitWindow(WorldConfig world) {
+        if (world.getWidth() <= Engine.WIDTH && world.getHeight() <= Engine.HEIGHT) {
+            return world;
+        }
+        return new WorldConfig(Math.min(world.getWidth(), Engine.WIDTH), Math.min(world.getHeight(), Engine.HEIGHT));
+    }
+
+    /**
+     * Move the view to keep the given X and Y of the world in the middle, return true if the view moved.
+     */
+    public boolean follow(int worldX, int worldY) {
+        int newX = clamp(worldX - view.getWidth() / 2, view.getWidth(), bounds == null ? 0 : bounds.getWidth());
+        int newY = clamp(worldY - view.getHeight() / 2, view.getHeight(), bounds == null ? 0 : bounds.getHeight());
+        boolean isMoved = newX != x || newY != y;
+        x = newX;
+        y = newY;
+        return isMoved;
+    }
+
+    /**
+     * Return the start of a view of the size in the bound, or the start itself if there is no bound.
+     */
+    private static int clamp(int start, int size, int bound) {
+        if (bound == 0) {
+            return start;
+        }
+        return Math.max(0, Math.min(start, bound - size));
+    }
+
+    /**
+     * Return the size of the view.
+     */
+    public WorldConfig getView() {
+        return view;
+    }
+
+    /**
+     * Return the X of the world at the west of the view.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Return the Y of the world at the south of the view.
+     */
+    public int getY() {
+        return y;
+    }
+}
@@ -3,10 +3,14 @@ package byow.Core;
 import byow.Core.InputPackage.InputMethods;
 import byow.Core.InputPackage.KeyInput;
 import byow.Core.InputPackage.StrInput;
+import byow.TileEngine.RenderThread;
+import byow.TileEngine.TileRenderer;
 import edu.princeton.cs.introcs.StdDraw;
 
 import java.awt.*;
+import java.io.File;
 import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is to respond the user command.
@@ -26,9 +30,13 @@ public class Engine implements Serializable {
      */
     public static final int INFO_HEIGHT = 5;
     /**
-     * The pause time for showing a frame.
+     * The time of a tick of the game loop, in nanoseconds.
      */
-    private final int PAUSE_TIME = 500;
+    private static final long TICK_TIME = TimeUnit.MILLISECONDS.toNanos(50);
+    /**
+     * The interval of the autosave of a game played by the keyboard, in milliseconds.
+     */
+    public static final int AUTOSAVE_INTERVAL = 30000;
     /**
      * The vision scope of the player.
      */
@@ -37,6 +45,78 @@ public class Engine implements Serializable {
      * The main instance of the game.
      */
     private Game game;
+    /**
+     * The name of the renderer of the games, see TileRenderer.create.
+     */
+    private final String renderer;
+    /**
+     * The config of the finite worlds of new games, the window shows the part around the player.
+     */
+    private final WorldConfig config;
+    /**
+     * The memory-mapped file of the finite worlds of new games, or null to keep the worlds on the heap.
+     */
+    private final File mapFile;
+    /**
+     * True if the engine runs a session of a batch, that is never saved, loaded, rendered or exits.
+     */
+    private final boolean isBatch;
+    /**
+     * The thread that draws the frames of the game played by the keyboard, or null.
+     */
+    private transient RenderThread renderThread;
+
+    /**
+     * Create an engine that renders the games by StdDraw.
+     */
+    public Engine() {
+        this(TileRenderer.STD_DRAW);
+    }
+
+    /**
+     * Create an engine that renders the games by the renderer of the given name.
+     */
+    public Engine(String renderer) {
+        this(renderer, WorldConfig.DEFAULT);
+    }
+
+    /**
+     * Create an engine that renders the games by the renderer of the given name,
+     * and creates the finite worlds of the given config.
+     */
+    public Engine(String renderer, WorldConfig config) {
+        this(renderer, config, null);
+    }
+
+    /**
+     * Create an engine that renders the games by the renderer of the given name, and creates the finite
+     * worlds of the given config in the given memory-mapped file, or on the heap if the file is null.
+     */
+    public Engine(String renderer, WorldConfig config, File mapFile) {
+        this(renderer, config, mapFile, false);
+    }
+
+    private Engine(String renderer, WorldConfig config, File mapFile, boolean isBatch) {
+        this.renderer = renderer;
+        this.config = config;
+        this.mapFile = mapFile;
+        this.isBatch = isBatch;
+    }
+
+    /**
+     * Return an engine of a session of a batch, it creates the finite worlds of the given config,
+     * and ':q' or 'q' ends the session without saving or exiting.
+     */
+    static Engine newBatchEngine(WorldConfig config) {
+        return new Engine(TileRenderer.NONE, config, null, true);
+    }
+
+    /**
+     * Return the game of the last session, or null if no game was started.
+     */
+    Game getGame() {
+        return game;
+    }
 
     /**
      * Parse the input.
@@ -46,18 +126,29 @@ public class Engine implements Serializable {
         final int stage2 = 1;
         boolean isFirstCommand = true;
         boolean waitingForSeed = false;
+        boolean isChunked = false;
         boolean waitingForSaveQ = false;
         int stage = stage1;
         StringBuilder sb = new StringBuilder();
+        long nextTick = System.nanoTime() + TICK_TIME;
         while (input.possibleNextInput()) {
-            char c = input.getNextKey();
+            char c = input.pollNextKey(Math.max(0, nextTick - System.nanoTime()), TimeUnit.NANOSECONDS);
+            long now = System.nanoTime();
+            if (now - nextTick >= 0) {
+                tick();
+                nextTick = Math.max(nextTick + TICK_TIME, now);
+            }
+            if (c == InputMethods.NO_KEY) {
+                continue;
+            }
             if (waitingForSaveQ && c != 'q') {
                 waitingForSaveQ = false;
             }
             switch (c) {
-                case 'n' -> {
+                case 'n', 'i' -> {
                     if (isFirstCommand) {
                         waitingForSeed = true;
+                        isChunked = c == 'i';
                         if (input.getClass() == KeyInput.class) {
                             showPrompt();
                         }
@@ -65,16 +156,28 @@ public class Engine implements Serializable {
                 }
                 case 'l' -> {
                     if (isFirstCommand) {
+                        checkNotBatch();
                         stage = stage2;
-                        this.game = Game.readFromFile();
+                        this.game = Game.readFromFile(createRenderer(input));
+                        startJournal(input);
                     }
                 }
-                case 'q' -> {
+                case 'r' -> {
                     if (isFirstCommand) {
-                        System.exit(0);
+                        checkNotBatch();
+                        stage = stage2;
+                        this.game = Game.restore(createRenderer(input));
+                        startJournal(input);
+                    }
+                }
+                case 'q' -> {
+                    if (isBatch && (isFirstCommand || waitingForSaveQ)) {
+                        return;
+                    } else if (isFirstCommand) {
+                        exit(input);
                     } else if (waitingForSaveQ) {
                         game.saveToFile();
-                        System.exit(0);
+                        exit(input);
                     }
                 }
                 case ':' -> {
@@ -86,23 +189,22 @@ public class Engine implements Serializable {
                     if (stage == stage1 && waitingForSeed && sb.length() > 0) {
                         waitingForSeed = false;
                         stage = stage2;
-                        this.game = new Game(Long.parseLong(sb.toString()));
+                        long seed = Long.parseLong(sb.toString());
+                        TileRenderer ter = createRenderer(input);
+                        this.game = isChunked ? Game.newChunkedGame(seed, ter)
+                                : mapFile != null ? Game.newMappedGame(seed, config, mapFile, ter)
+                                : new Game(seed, config, ter);
                         sb = new StringBuilder();
                         game.newWorld();
                         game.interactiveGame();
+                        startJournal(input);
                     } else if (stage == stage2) {
                         game.move(c);
                     }
                 }
                 case 'v' -> {
                     if (stage == stage2) {
-                        if (game.getVisionScope() == 0) {
-                            game.setVisionScope(VISION_SCOPE);
-                        } else {
-                            game.setVisionScope(0);
-                        }
-                        game.fillAllTiles(true);
-                        game.render();
+                        game.switchVision();
                     }
                 }
                 default -> {
@@ -117,6 +219,68 @@ public class Engine implements Serializable {
                 }
             }
             isFirstCommand = false;
+            input.frameShown();
+        }
+    }
+
+    /**
+     * Throw if the session is of a batch, since it must not read the files that other sessions write.
+     */
+    private void checkNotBatch() {
+        if (isBatch) {
+            throw new IllegalArgumentException("A session of a batch cannot load a save.");
+        }
+    }
+
+    /**
+     * Run a tick of the game loop, it runs at a fixed rate whether a key is typed or not.
+     */
+    private void tick() {
+        if (game != null) {
+            game.tick();
+        }
+    }
+
+    /**
+     * Return the renderer of a new game, a game played by the keyboard is drawn on a RenderThread, so drawing
+     * a frame never blocks the keys, and the keys are measured until their frames are drawn.
+     */
+    private TileRenderer createRenderer(InputMethods input) {
+        TileRenderer ter = TileRenderer.create(renderer);
+        if (input.getClass() != KeyInput.class) {
+            return ter;
+        }
+        renderThread = new RenderThread(ter, (KeyInput) input);
+        return renderThread;
+    }
+
+    /**
+     * Stop the journal and the autosave of the game, so they are on the disk, and wait for the render thread
+     * to draw the last frame. Then report the time from the keys to their frames if the game is played by
+     * the keyboard, and exit.
+     */
+    private void exit(InputMethods input) {
+        if (game != null) {
+            game.stopJournal();
+        }
+        if (renderThread != null) {
+            renderThread.close();
+            renderThread = null;
+        }
+        if (input instanceof KeyInput keyInput) {
+            System.out.println(keyInput.getLatencyReport());
+            keyInput.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Start the journal and the autosave of the game if it is played by the keyboard, a game of an input string
+     * is only saved by ':q'.
+     */
+    private void startJournal(InputMethods input) {
+        if (input.getClass() == KeyInput.class) {
+            game.startJournal(AUTOSAVE_INTERVAL);
         }
     }
 
@@ -125,6 +289,9 @@ public class Engine implements Serializable {
      * including inputs from the main menu.
      */
     public void interactWithKeyboard() {
+        if (renderer.equals(TileRenderer.HEADLESS)) {
+            throw new IllegalStateException("The keyboard needs a window, but the renderer is headless.");
+        }
         KeyInput keyInput = new KeyInput();
         showMainMenu();
         parseInput(keyInput);
@@ -149,11 +316,13 @@ public class Engine implements Serializable {
      *   - interactWithInputString("n123sssww")
      *
      * @param input the input string to feed to your program
-     * @return the 2D TETile[][] representing the state of the world
+     * @return a read-only view of the final world with its content hash, see WorldView.toTiles for the
+     *         TETile[][] of the world, or null if no game was started
      */
-    public void interactWithInputString(String input) {
+    public WorldView interactWithInputString(String input) {
         StrInput strInput = new StrInput(input);
         parseInput(strInput);
+        return game == null ? null : game.getView();
     }
 
     /**
@@ -182,12 +351,17 @@ public class Engine implements Serializable {
                 "New Game (N)");
         StdDraw.text((double) Engine.WIDTH / 2,
                 (double) Engine.HEIGHT / menuHeight - menuGap,
-                "Load Game (L)");
+                "Infinite World (I)");
         StdDraw.text((double) Engine.WIDTH / 2,
                 (double) Engine.HEIGHT / menuHeight - menuGap * 2,
+                "Load Game (L)");
+        StdDraw.text((double) Engine.WIDTH / 2,
+                (double) Engine.HEIGHT / menuHeight - menuGap * 3,
+                "Restore Game (R)");
+        StdDraw.text((double) Engine.WIDTH / 2,
+                (double) Engine.HEIGHT / menuHeight - menuGap * 4,
                 "Quit (Q)");
         StdDraw.show();
-        StdDraw.pause(PAUSE_TIME);
     }
 
     /**
@@ -199,7 +373,6 @@ public class Engine implements Serializable {
         StdDraw.text((double) Engine.WIDTH / 2, (double) Engine.HEIGHT / 2,
                 "Please input numbers to generate a world: ");
         StdDraw.show();
-        StdDraw.pause(PAUSE_TIME);
     }
 
     /**
@@ -210,6 +383,5 @@ public class Engine implements Serializable {
         StdDraw.setPenColor(StdDraw.WHITE);
         StdDraw.text((double) Engine.WIDTH / 2, (double) Engine.HEIGHT / 2, "Seed: " + seed);
         StdDraw.show();
-        StdDraw.pause(PAUSE_TIME);
     }
 }
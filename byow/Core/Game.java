@@ -1,46 +1,111 @@
 package byow.Core;
 
+import byow.Core.Legacy.LegacySave;
+import byow.Core.World.ChunkedWorld;
 import byow.Core.World.Construction;
 import byow.Core.World.Frame;
+import byow.Core.World.ParallelFrame;
 import byow.TileEngine.TERenderer;
 import byow.TileEngine.TETile;
+import byow.TileEngine.TileRenderer;
 import byow.TileEngine.Tileset;
 
 import java.io.File;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 
 /**
  * This class is used to represent the game.
  */
 public class Game implements Serializable {
 
+    /**
+     * Pinned to the Game of the saves of Java serialization with a WorldGrid, that readFromFile still reads.
+     */
+    private static final long serialVersionUID = -7593950743853562810L;
     /**
      * The file for serialize and save the instance to disk.
      */
     private static final File OBJ_FILE = Utils.join(new File(System.getProperty("user.dir")), "my_world.obj");
     /**
-     * The code of player.
+     * The file of the journal of the commands after the save.
+     */
+    private static final File JOURNAL_FILE = Utils.join(new File(System.getProperty("user.dir")), "my_world.journal");
+    /**
+     * The first 4 bytes of a save file, that are "BYOW".
+     */
+    private static final int SAVE_MAGIC = 0x42594F57;
+    /**
+     * The first 2 bytes of a save of Java serialization.
+     */
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+    /**
+     * The version of the save file.
+     */
+    private static final int SAVE_VERSION = 4;
+    /**
+     * The kinds of the world in a save file.
      */
-    public static final int PLAYER = 100;
+    private static final int SAVE_WORLD_GRID = 0;
+    private static final int SAVE_CHUNKED_WORLD = 1;
+    private static final int SAVE_WORLD_DELTA = 2;
+    private static final int SAVE_MAPPED_WORLD = 3;
     /**
      * The style of player.
      */
     public static final TETile PLAYER_TILE = Tileset.AVATAR;
     /**
-     * The position of the player.
+     * The seed of the game, it is 0 for a game of a save of Java serialization.
+     */
+    private final long seed;
+    /**
+     * The X of the player.
+     */
+    private int xOfPlayer;
+    /**
+     * The Y of the player.
+     */
+    private int yOfPlayer;
+    /**
+     * True if the player was placed in the world.
+     */
+    private boolean hasPlayer;
+    /**
+     * The changed types of the tiles of a finite world by iPoint since the world was generated from the seed,
+     * or null if the world cannot be generated again, e.g. it was read from a save of all the tiles.
+     * A MappedWorldGrid keeps its changes in place, and they revert the file to a save, see readMappedChanges.
      */
-    private Point iPointOfPlayer;
+    private TreeMap<Integer, Byte> changes;
+    /**
+     * The stamp of the MappedWorldGrid when a snapshot of the game was taken, see MappedWorldGrid.getStamp.
+     */
+    private long mappedStamp;
     /**
      * The scope of player version, set to 0 for infinity.
      */
     private int visionScope;
     /**
-     * Save the tileBrick of every tile.
+     * The count of the commands that changed the game since it was created, e.g. the moves.
      */
-    private final TileBrick[] tileBricks;
+    private long commandCount;
+    /**
+     * The id of the journal that has the commands of the game, or 0 if the commands are not in a journal.
+     */
+    private long journalId;
+    /**
+     * The config of a finite world, or of the frame on the screen of a chunked world.
+     */
+    private final WorldConfig config;
+    /**
+     * Save the properties of every tile, either a WorldGrid, a MappedWorldGrid or a ChunkedWorld.
+     */
+    private final WorldMap world;
+    /**
+     * The part of the world on the screen, that follows the player.
+     */
+    private transient Camera camera;
     /**
      * The frame is filled by Tiles.
      */
@@ -48,21 +113,104 @@ public class Game implements Serializable {
     /**
      * The renderer is used to render the frame.
      */
-    transient TERenderer ter;
+    transient TileRenderer ter;
+    /**
+     * The visible and dirty tiles of the frame.
+     */
+    private transient Vision vision;
     /**
      * The random of the game.
      */
     private final transient Random rand;
+    /**
+     * The autosave of the game, or null.
+     */
+    private transient Autosave autosave;
+    /**
+     * The journal of the commands of the game, or null.
+     */
+    private transient Journal journal;
 
     public Game(long seed) {
-        this.rand = new Random(seed);
-        this.tileBricks = new TileBrick[Frame.VOLUME];
-        iPointOfPlayer = null;
+        this(seed, WorldConfig.DEFAULT);
+    }
+
+    public Game(long seed, WorldConfig config) {
+        this(seed, config, new TERenderer());
+    }
+
+    public Game(long seed, WorldConfig config, TileRenderer ter) {
+        this(seed, config, new WorldGrid(config), ter);
+    }
+
+    private Game(long seed, WorldConfig config, WorldMap world, TileRenderer ter) {
+        this(seed, config, world, ter, new Random(seed));
+    }
+
+    private Game(long seed, WorldConfig config, WorldMap world, TileRenderer ter, Random rand) {
+        this.seed = seed;
+        this.rand = rand;
+        this.config = config;
+        this.world = world;
+        this.hasPlayer = false;
+        this.changes = world instanceof WorldGrid || world instanceof MappedWorldGrid ? new TreeMap<>() : null;
         this.visionScope = Engine.VISION_SCOPE;
-        for (int i = 0; i < Frame.VOLUME; i++) {
-            this.tileBricks[i] = new TileBrick();
+        init(ter);
+    }
+
+    /**
+     * Create a snapshot of the game for a save, the world is a snapshot too unless only its changes are saved.
+     * A MappedWorldGrid is stamped, so a load knows if the file was changed after the snapshot.
+     * The snapshot has no frame and no renderer.
+     */
+    private Game(Game game) {
+        this.seed = game.seed;
+        this.rand = null;
+        this.config = game.config;
+        this.xOfPlayer = game.xOfPlayer;
+        this.yOfPlayer = game.yOfPlayer;
+        this.hasPlayer = game.hasPlayer;
+        this.visionScope = game.visionScope;
+        this.commandCount = game.commandCount;
+        this.journalId = game.journalId;
+        this.changes = game.changes == null ? null : new TreeMap<>(game.changes);
+        if (game.world instanceof ChunkedWorld chunked) {
+            this.world = chunked.snapshot();
+        } else if (game.world instanceof WorldGrid grid && changes == null) {
+            this.world = grid.snapshot();
+        } else {
+            this.world = game.world;
+        }
+        if (world instanceof MappedWorldGrid mapped) {
+            this.mappedStamp = mapped.newStamp();
         }
-        init();
+    }
+
+    /**
+     * Return a game of an infinite world, the chunks of the world are generated when the player gets close.
+     */
+    public static Game newChunkedGame(long seed) {
+        return newChunkedGame(seed, new TERenderer());
+    }
+
+    /**
+     * Return a game of an infinite world that is rendered by the given renderer.
+     */
+    public static Game newChunkedGame(long seed, TileRenderer ter) {
+        return new Game(seed, WorldConfig.DEFAULT, new ChunkedWorld(seed), ter);
+    }
+
+    /**
+     * Return a game of a finite world that is kept in the given memory-mapped file, the file is created or
+     * overwritten. The world is generated into the file by parts, see createWorld, so it is the same as
+     * a game of a WorldGrid of the seed, and the heap only holds a part at a time.
+     */
+    public static Game newMappedGame(long seed, WorldConfig config, File mapFile, TileRenderer ter) {
+        Random rand = new Random(seed);
+        MappedWorldGrid mapped = MappedWorldGrid.create(mapFile, config);
+        createWorld(rand, mapped);
+        mapped.force();
+        return new Game(seed, config, mapped, ter, rand);
     }
 
     /**
@@ -79,64 +227,345 @@ public class Game implements Serializable {
         this.visionScope = visionScope;
     }
 
+    /**
+     * Switch the vision scope between the scope around the player and infinity, and render the frame.
+     */
+    public void switchVision() {
+        applySwitchVision();
+        recordCommand('v');
+    }
+
+    /**
+     * Switch the vision scope and render the frame.
+     */
+    private void applySwitchVision() {
+        visionScope = visionScope == 0 ? Engine.VISION_SCOPE : 0;
+        fillAllTiles(true);
+        render();
+    }
+
+    /**
+     * Return a 64-bit hash of the state of the game: the tiles of the world, the player and the vision scope.
+     */
+    public long contentHash() {
+        return contentHash(world, xOfPlayer, yOfPlayer, hasPlayer, visionScope);
+    }
+
+    /**
+     * Return the 64-bit hash of a game of the given world, player and vision scope, see contentHash.
+     */
+    static long contentHash(WorldMap world, int xOfPlayer, int yOfPlayer, boolean hasPlayer, int visionScope) {
+        long hash = world.contentHash();
+        hash = WorldGrid.hashStep(hash, xOfPlayer);
+        hash = WorldGrid.hashStep(hash, yOfPlayer);
+        hash = WorldGrid.hashStep(hash, hasPlayer ? 1 : 0);
+        return WorldGrid.hashStep(hash, visionScope);
+    }
+
+    /**
+     * Return a read-only view of a snapshot of the world: all of a finite world, or the part of a chunked world
+     * on the screen. The arrays of a WorldGrid are shared with the view until the game changes them, the part of
+     * a chunked world is copied from a snapshot that generates its own chunks, and a MappedWorldGrid is backed by
+     * a snapshot of its file, since the file is changed in place.
+     */
+    public WorldView getView() {
+        if (isChunked()) {
+            WorldConfig view = camera.getView();
+            return WorldView.copyOf(((ChunkedWorld) world).snapshot(), camera.getX(), camera.getY(),
+                    view.getWidth(), view.getHeight(), xOfPlayer, yOfPlayer, hasPlayer, visionScope);
+        }
+        if (world instanceof MappedWorldGrid mapped) {
+            MappedWorldGrid snapshot = mapped.snapshot();
+            return new WorldView(snapshot, 0, 0, config.getWidth(), config.getHeight(), snapshot.getTypes(),
+                    snapshot.getConstructionTypes(), xOfPlayer, yOfPlayer, hasPlayer, visionScope);
+        }
+        WorldGrid grid = ((WorldGrid) world).snapshot();
+        return new WorldView(grid, 0, 0, config.getWidth(), config.getHeight(), grid.getTypes(),
+                grid.getConstructionTypes(), xOfPlayer, yOfPlayer, hasPlayer, visionScope);
+    }
+
+    /**
+     * Return the count of the commands that changed the game since it was created.
+     */
+    public long getCommandCount() {
+        return commandCount;
+    }
+
     /**
      * Initialise some fields when create and recovery.
      */
-    private void init() {
-        tiles = new TETile[Engine.WIDTH][Engine.HEIGHT];
-        ter = new TERenderer();
-        ter.initialize(Engine.WIDTH, Engine.HEIGHT);
+    private void init(TileRenderer renderer) {
+        WorldConfig view = isChunked() ? config : Camera.fitWindow(config);
+        camera = new Camera(view, isChunked() ? null : config);
+        tiles = new TETile[view.getWidth()][view.getHeight()];
+        vision = new Vision(view);
+        ter = renderer;
+        ter.initialize(view.getWidth(), view.getHeight());
+    }
+
+    /**
+     * Return true if the world is an infinite chunked world.
+     */
+    private boolean isChunked() {
+        return world instanceof ChunkedWorld;
+    }
+
+    /**
+     * Return true if the world is a finite world in a memory-mapped file.
+     */
+    private boolean isMapped() {
+        return world instanceof MappedWorldGrid;
     }
 
     /**
      * Start a new game with render a frame.
      */
     public void newWorld() {
-        Frame frame = new Frame(rand, tileBricks);
-        frame.create();
+        if (world instanceof WorldGrid grid) {
+            createWorld(rand, grid);
+        }
         fillAllTiles();
         render();
     }
 
+    /**
+     * Create the rooms and hallways of a finite world by the random, a world larger than a region of
+     * ParallelFrame is created in parallel. The world must be at least Frame.MIN_SIDE_LENGTH both ways.
+     * A small world that is not a WorldGrid is created in a grid and copied to it.
+     */
+    private static void createWorld(Random rand, WorldStore world) {
+        WorldConfig config = world.getConfig();
+        Frame.checkSize(config);
+        if (config.getWidth() > ParallelFrame.DEFAULT_REGION_SIZE
+                || config.getHeight() > ParallelFrame.DEFAULT_REGION_SIZE) {
+            new ParallelFrame(rand.nextLong(), world).create();
+        } else if (world instanceof WorldGrid grid) {
+            new Frame(rand, grid).create();
+        } else {
+            WorldGrid grid = new WorldGrid(config);
+            new Frame(rand, grid).create();
+            world.copyFrom(grid, 0, 0, world.newConstructionIds(grid.getConstructionCount()));
+        }
+    }
+
     /**
      * Read the saved instance variables.
      */
     public static Game readFromFile() {
-        Game game = Utils.readObject(OBJ_FILE, Game.class);
-        game.init();
+        return readFromFile(new TERenderer());
+    }
+
+    /**
+     * Read the saved instance variables, and render the game by the given renderer.
+     */
+    public static Game readFromFile(TileRenderer ter) {
+        return readFromFile(OBJ_FILE, ter);
+    }
+
+    /**
+     * Read the game from the given save file, and render the game by the given renderer.
+     * A save of Java serialization is still read, either of the first Game with its TileBricks or of a
+     * Game with a WorldGrid, and it is written in the new format the next time.
+     */
+    public static Game readFromFile(File file, TileRenderer ter) {
+        SaveBuffer buffer = SaveBuffer.readFile(file);
+        int magic = buffer.getInt();
+        Game game;
+        if (magic >>> 16 == JAVA_SERIALIZATION_MAGIC) {
+            Object saved = LegacySave.readObject(file);
+            if (saved instanceof LegacySave legacy) {
+                game = readFrom(legacy, ter);
+            } else if (saved instanceof Game serialized) {
+                game = serialized;
+                game.init(ter);
+            } else {
+                throw new IllegalArgumentException("Not a save file: " + file);
+            }
+        } else if (magic == SAVE_MAGIC) {
+            game = readFrom(buffer, ter);
+        } else {
+            throw new IllegalArgumentException("Not a save file: " + file);
+        }
         game.fillAllTiles(true);
         game.render();
         return game;
     }
 
     /**
-     * Fill a tile.
+     * Return the game of a save of the first Game, whose world cannot be generated again.
+     */
+    private static Game readFrom(LegacySave legacy, TileRenderer ter) {
+        WorldGrid grid = legacy.getGrid();
+        Game game = new Game(0, grid.getConfig(), grid, ter);
+        game.changes = null;
+        game.xOfPlayer = legacy.getXOfPlayer();
+        game.yOfPlayer = legacy.getYOfPlayer();
+        game.hasPlayer = legacy.hasPlayer();
+        game.visionScope = legacy.getVisionScope();
+        return game;
+    }
+
+    /**
+     * Return the game of the save file after the magic, the fields are in the order of writeTo.
+     * A save of version 1 has no generator version, that was the version 1 of Frame.
+     */
+    private static Game readFrom(SaveBuffer buffer, TileRenderer ter) {
+        int version = buffer.getShort();
+        if (version < 1 || version > SAVE_VERSION) {
+            throw new IllegalArgumentException("Unknown version of the save file: " + version);
+        }
+        int kind = buffer.getByte();
+        int generatorVersion = version == 1 ? 1 : buffer.getVarInt();
+        if ((kind == SAVE_CHUNKED_WORLD || kind == SAVE_WORLD_DELTA) && generatorVersion != Frame.GENERATOR_VERSION) {
+            throw new IllegalArgumentException("The world was generated by the version " + generatorVersion
+                    + " of Frame, it cannot be generated again by the version " + Frame.GENERATOR_VERSION + ".");
+        }
+        long seed = buffer.getLong();
+        WorldConfig config = new WorldConfig(buffer.getVarInt(), buffer.getVarInt());
+        int xOfPlayer = buffer.getInt();
+        int yOfPlayer = buffer.getInt();
+        boolean hasPlayer = buffer.getByte() != 0;
+        int visionScope = buffer.getVarInt();
+        long commandCount = version < 3 ? 0 : buffer.getLong();
+        long journalId = version < 3 ? 0 : buffer.getLong();
+        Game game = switch (kind) {
+            case SAVE_WORLD_GRID -> new Game(seed, config, WorldGrid.readFrom(buffer), ter);
+            case SAVE_CHUNKED_WORLD -> new Game(seed, config, ChunkedWorld.readFrom(buffer), ter);
+            case SAVE_WORLD_DELTA -> new Game(seed, config, new WorldGrid(config), ter);
+            case SAVE_MAPPED_WORLD -> new Game(seed, config, openMapped(buffer.getString(), config), ter);
+            default -> throw new IllegalArgumentException("Unknown kind of world in the save file: " + kind);
+        };
+        if (kind == SAVE_WORLD_DELTA) {
+            createWorld(game.rand, (WorldGrid) game.world);
+            game.readChanges(buffer);
+            game.applyChanges();
+        } else if (kind == SAVE_MAPPED_WORLD && version >= 4) {
+            game.readMappedChanges(buffer);
+        } else {
+            game.changes = null;
+        }
+        game.xOfPlayer = xOfPlayer;
+        game.yOfPlayer = yOfPlayer;
+        game.hasPlayer = hasPlayer;
+        game.visionScope = visionScope;
+        game.commandCount = commandCount;
+        game.journalId = journalId;
+        return game;
+    }
+
+    /**
+     * Restore the game of the save file and the commands of the journal after it.
      */
-    private void fillATile(int x, int y, boolean isHide) {
+    public static Game restore(TileRenderer ter) {
+        return restore(OBJ_FILE, JOURNAL_FILE, ter);
+    }
+
+    /**
+     * Restore the game by the latest checkpoint, that is a save of the game, and replay only the commands of the
+     * journal after the command count of the checkpoint, so a long game is restored in the same time.
+     * The journal is closed after it is read, the game is not journaled until startJournal.
+     */
+    public static Game restore(File checkpoint, File journalFile, TileRenderer ter) {
+        Game game = readFromFile(checkpoint, ter);
+        Journal journal = Journal.open(journalFile);
+        try {
+            if (game.journalId == 0 || journal.getId() != game.journalId) {
+                throw new IllegalArgumentException("The journal does not belong to the save: " + journalFile);
+            }
+            for (char c : journal.readFrom(game.commandCount)) {
+                game.apply(c);
+                game.commandCount++;
+            }
+        } finally {
+            journal.close();
+        }
+        return game;
+    }
+
+    /**
+     * Return the mapped world of the file of the given path, that must be of the given config.
+     */
+    private static MappedWorldGrid openMapped(String path, WorldConfig config) {
+        MappedWorldGrid mapped = MappedWorldGrid.open(new File(path));
+        if (mapped.getConfig().getWidth() != config.getWidth()
+                || mapped.getConfig().getHeight() != config.getHeight()) {
+            throw new IllegalArgumentException("The mapped world file does not belong to the save: " + path);
+        }
+        return mapped;
+    }
+
+    /**
+     * Fill a tile of the frame by the tile of the world.
+     */
+    private void fillATile(int x, int y, int worldX, int worldY, boolean isHide) {
         if (isHide) {
             tiles[x][y] = Tileset.NOTHING;
+        } else if (hasPlayer && worldX == xOfPlayer && worldY == yOfPlayer) {
+            tiles[x][y] = PLAYER_TILE;
+        } else {
+            tiles[x][y] = WorldGrid.typeToStyle(world.getType(worldX, worldY));
+        }
+    }
+
+    /**
+     * Set the vision to the vision scope around the given X and Y of the world, or all the frame if not hide.
+     */
+    private void setVision(int centerX, int centerY, boolean isHide) {
+        if (isHide && visionScope > 0) {
+            vision.setSquare(centerX - camera.getX(), centerY - camera.getY(), visionScope);
         } else {
-            Point point = new Point(x, y);
-            tiles[x][y] = tileBricks[point.getIPoint()].getStyle();
+            vision.setAll();
         }
     }
 
     /**
-     * Fill all the tiles with the limit of the vision scope.
+     * Fill all the tiles with the limit of the vision scope around the given X and Y.
      */
-    public void fillAllTiles(Point point, boolean isHide) {
-        System.out.println("iPoint: " + point);
-        List<Integer> pointList = new ArrayList<>();
-        if (point != null) {
-            pointList = Point.getVision(point, this.visionScope);
+    public void fillAllTiles(int centerX, int centerY, boolean isHide) {
+        camera.follow(xOfPlayer, yOfPlayer);
+        setVision(centerX, centerY, isHide);
+        vision.markAllDirty();
+        fillDirtyTiles();
+    }
+
+    /**
+     * Fill the tiles that were changed after the vision scope moved around the given X and Y,
+     * the tiles of the world at the given Xs and Ys are changed too.
+     * All the visible tiles are changed if the camera moved.
+     */
+    private void updateTiles(int centerX, int centerY, int... changedXYs) {
+        boolean isMoved = camera.follow(xOfPlayer, yOfPlayer);
+        setVision(centerX, centerY, true);
+        int viewX = camera.getX();
+        int viewY = camera.getY();
+        if (isMoved) {
+            vision.markVisibleDirty();
         }
-        boolean tileIsHide;
-        for (int x = 0; x < Engine.WIDTH; x++) {
-            for (int y = 0; y < Engine.HEIGHT; y++) {
-                Point neighbour = new Point(x, y);
-                tileIsHide = isHide && (visionScope > 0) && (!pointList.contains(neighbour.getIPoint())) ?
-                        true : false;
-                fillATile(x, y, tileIsHide);
+        for (int i = 0; i + 1 < changedXYs.length; i += 2) {
+            vision.markDirty(changedXYs[i] - viewX, changedXYs[i + 1] - viewY);
+        }
+        fillDirtyTiles();
+    }
+
+    /**
+     * Fill the dirty tiles of the vision by the world.
+     */
+    private void fillDirtyTiles() {
+        WorldConfig view = camera.getView();
+        int viewX = camera.getX();
+        int viewY = camera.getY();
+        if (vision.isAllDirty()) {
+            for (int x = 0; x < view.getWidth(); x++) {
+                for (int y = 0; y < view.getHeight(); y++) {
+                    fillATile(x, y, viewX + x, viewY + y, !vision.isVisible(x, y));
+                }
+            }
+        } else {
+            int[] dirtyTiles = vision.getDirtyTiles();
+            for (int i = 0; i < vision.getDirtyCount(); i++) {
+                int x = view.iPointToX(dirtyTiles[i]);
+                int y = view.iPointToY(dirtyTiles[i]);
+                fillATile(x, y, viewX + x, viewY + y, !vision.isVisible(x, y));
             }
         }
     }
@@ -145,21 +574,26 @@ public class Game implements Serializable {
      * Fill all the tiles without limit the vision scope.
      */
     public void fillAllTiles() {
-        fillAllTiles(null, false);
+        fillAllTiles(xOfPlayer, yOfPlayer, false);
     }
 
     /**
-     * Fill all the tiles without limit the vision scope.
+     * Fill all the tiles with the limit of the vision scope around the player.
      */
     public void fillAllTiles(boolean isHide) {
-        fillAllTiles(this.iPointOfPlayer, isHide);
+        fillAllTiles(xOfPlayer, yOfPlayer, isHide && hasPlayer);
     }
 
     /**
-     * Render the tiles.
+     * Render the tiles, only the dirty tiles are drawn again if not all the tiles are dirty.
      */
     private void render(String info) {
-        ter.renderFrame(tiles, info);
+        if (vision.isAllDirty()) {
+            ter.renderFrame(tiles, info);
+        } else {
+            ter.renderTiles(tiles, info, vision.getDirtyTiles(), vision.getDirtyCount());
+        }
+        vision.clearDirty();
     }
 
     /**
@@ -167,63 +601,321 @@ public class Game implements Serializable {
      */
     public void render() {
         String info = "";
-        if (iPointOfPlayer != null) {
-            TileBrick player = tileBricks[iPointOfPlayer.getIPoint()];
-            info = "   I am at " + iPointOfPlayer + ", "
-                    + "a " + player.getTypeString()
-                    + " of a " + player.getConstructionTypeString() + ". "
-                    + "Tip: Press 'v' to switch the vision scope, press ':q' to save and quit.";
+        if (hasPlayer) {
+            info = "   I am at (" + xOfPlayer + ", " + yOfPlayer + "), "
+                    + "a " + WorldGrid.typeToString(world.getType(xOfPlayer, yOfPlayer))
+                    + " of a " + WorldGrid.constructionTypeToString(world.getConstructionType(xOfPlayer, yOfPlayer))
+                    + ". Tip: Press 'v' to switch the vision scope, press ':q' to save and quit.";
         }
         render(info);
     }
 
+    /**
+     * Start to save the game to the save file on a background thread, it is due every given milliseconds
+     * and checked by every move. A save by saveToFile waits for the autosave, so an older snapshot never
+     * overwrites it.
+     */
+    public void startAutosave(long intervalMillis) {
+        startAutosave(OBJ_FILE, intervalMillis);
+    }
+
+    /**
+     * Start to save the game to the given file on a background thread, every given milliseconds.
+     */
+    public void startAutosave(File file, long intervalMillis) {
+        stopAutosave();
+        autosave = new Autosave(file, intervalMillis);
+    }
+
+    /**
+     * Save the last snapshot of the autosave and stop it.
+     */
+    public void stopAutosave() {
+        if (autosave != null) {
+            autosave.close();
+            autosave = null;
+        }
+    }
+
+    /**
+     * Start to write the commands of the game to the journal file, and to save the checkpoints to the save file
+     * every Journal.CHECKPOINT_INTERVAL commands and by the autosave every given milliseconds.
+     */
+    public void startJournal(long intervalMillis) {
+        startJournal(JOURNAL_FILE, OBJ_FILE, intervalMillis);
+    }
+
+    /**
+     * Start to write the commands of the game to the given journal, and to save the checkpoints to the given file.
+     * The first checkpoint has the id of the new journal, so it is saved before the journal is created,
+     * then the old checkpoint and journal are kept together until the new checkpoint is on the disk.
+     */
+    public void startJournal(File journalFile, File checkpoint, long intervalMillis) {
+        stopJournal();
+        long id;
+        do {
+            id = new Random().nextLong();
+        } while (id == 0);
+        journalId = id;
+        saveToFile(checkpoint);
+        journal = Journal.create(journalFile, id, commandCount);
+        startAutosave(checkpoint, intervalMillis);
+    }
+
+    /**
+     * Save the last checkpoint, and stop the journal and the autosave, the journal is forced to the disk.
+     */
+    public void stopJournal() {
+        stopAutosave();
+        if (journal != null) {
+            journal.force();
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Count a command that changed the game, and write it to the journal. A checkpoint is saved every
+     * Journal.CHECKPOINT_INTERVAL commands, and a command out of the journal breaks the link of the journal.
+     */
+    private void recordCommand(char c) {
+        commandCount++;
+        if (journal == null) {
+            journalId = 0;
+        } else {
+            journal.append(c);
+            if (commandCount % Journal.CHECKPOINT_INTERVAL == 0 && autosave != null) {
+                journal.force();
+                autosave.save(new Game(this));
+                return;
+            }
+        }
+        autosaveIfDue();
+    }
+
+    /**
+     * Apply a command of the journal without recording it.
+     */
+    private void apply(char c) {
+        if (c == 'v') {
+            applySwitchVision();
+        } else {
+            applyMove(c);
+        }
+    }
+
+    /**
+     * Run a tick of the game loop of Engine, the autosave is checked when no key is typed too.
+     */
+    public void tick() {
+        autosaveIfDue();
+    }
+
+    /**
+     * Give a snapshot of the game to the autosave if it is due.
+     */
+    private void autosaveIfDue() {
+        if (autosave != null && autosave.isDue()) {
+            autosave.save(new Game(this));
+        }
+    }
+
     /**
      * Save the instance variables to disk.
      */
     public void saveToFile() {
-        Utils.writeObject(OBJ_FILE, this);
+        saveToFile(OBJ_FILE);
     }
 
     /**
-     * Start to interactiveGame.
+     * Save the game to the given file, only the changes since the world was generated are saved if it can be
+     * generated again from the seed.
      */
-    public void interactiveGame() {
-        int randomPosition = this.rand.nextInt(Frame.VOLUME);
-        int iPoint = -1;
-        while (randomPosition >= 0) {
-            if (tileBricks[randomPosition].getType() == Construction.BRICKS) {
-                iPoint = randomPosition;
-                break;
+    public void saveToFile(File file) {
+        saveToFile(file, changes != null);
+    }
+
+    /**
+     * Save the game to the given file, either only the changes of a finite world since it was generated from
+     * the seed, or all the tiles. A chunked world always saves its changes only, and a mapped world
+     * saves the path of its file, that is written to the disk, and its changes. A mapped world is saved
+     * by a snapshot, that stamps the file.
+     */
+    public void saveToFile(File file, boolean isDelta) {
+        if (isDelta && changes == null && !isChunked() && !isMapped()) {
+            throw new IllegalStateException("The world cannot be generated again from the seed.");
+        }
+        if (autosave != null) {
+            autosave.flush();
+        }
+        (isMapped() ? new Game(this) : this).writeFile(file, isDelta);
+    }
+
+    /**
+     * Write a snapshot of the game to the file, only the changes are saved if the world can be generated again.
+     */
+    void writeSnapshot(File file) {
+        writeFile(file, changes != null);
+    }
+
+    /**
+     * Write the game to the file, a mapped world is written to the disk first.
+     */
+    private void writeFile(File file, boolean isDelta) {
+        if (world instanceof MappedWorldGrid mapped) {
+            mapped.force();
+        }
+        SaveBuffer buffer = new SaveBuffer();
+        writeTo(buffer, isDelta);
+        buffer.writeFile(file);
+    }
+
+    /**
+     * Write the game to the buffer: the magic, the version, the kind of the world, the generator version,
+     * the seed, the config, the player, the vision scope, the command count and the journal id,
+     * then the world itself or its changes.
+     */
+    private void writeTo(SaveBuffer buffer, boolean isDelta) {
+        int kind = isChunked() ? SAVE_CHUNKED_WORLD : isMapped() ? SAVE_MAPPED_WORLD
+                : isDelta ? SAVE_WORLD_DELTA : SAVE_WORLD_GRID;
+        buffer.putInt(SAVE_MAGIC);
+        buffer.putShort(SAVE_VERSION);
+        buffer.putByte(kind);
+        buffer.putVarInt(Frame.GENERATOR_VERSION);
+        buffer.putLong(seed);
+        buffer.putVarInt(config.getWidth());
+        buffer.putVarInt(config.getHeight());
+        buffer.putInt(xOfPlayer);
+        buffer.putInt(yOfPlayer);
+        buffer.putByte(hasPlayer ? 1 : 0);
+        buffer.putVarInt(visionScope);
+        buffer.putLong(commandCount);
+        buffer.putLong(journalId);
+        switch (kind) {
+            case SAVE_CHUNKED_WORLD -> ((ChunkedWorld) world).writeTo(buffer);
+            case SAVE_WORLD_DELTA -> writeChanges(buffer);
+            case SAVE_MAPPED_WORLD -> {
+                buffer.putString(((MappedWorldGrid) world).getFile().getAbsolutePath());
+                buffer.putLong(mappedStamp);
+                writeChanges(buffer);
             }
-            randomPosition--;
+            default -> ((WorldGrid) world).writeTo(buffer);
+        }
+    }
+
+    /**
+     * Write the changes in the order of iPoint, by the count, then the gap from the last iPoint and the type.
+     */
+    private void writeChanges(SaveBuffer buffer) {
+        buffer.putVarInt(changes.size());
+        int last = 0;
+        for (Map.Entry<Integer, Byte> change : changes.entrySet()) {
+            buffer.putVarInt(change.getKey() - last);
+            buffer.putByte(change.getValue());
+            last = change.getKey();
         }
-        while (randomPosition < Frame.VOLUME) {
-            if (tileBricks[randomPosition].getType() == Construction.BRICKS) {
-                iPoint = randomPosition;
-                break;
+    }
+
+    /**
+     * Read the changes that were written by writeChanges.
+     */
+    private void readChanges(SaveBuffer buffer) {
+        int count = buffer.getVarInt();
+        int iPoint = 0;
+        for (int i = 0; i < count; i++) {
+            iPoint += buffer.getVarInt();
+            if (iPoint >= config.getVolume()) {
+                throw new IllegalArgumentException("The save file has a broken change at " + iPoint + ".");
             }
-            randomPosition++;
+            changes.put(iPoint, buffer.getByte());
+        }
+    }
+
+    /**
+     * Apply the changes to the world.
+     */
+    private void applyChanges() {
+        for (Map.Entry<Integer, Byte> change : changes.entrySet()) {
+            world.setType(config.iPointToX(change.getKey()), config.iPointToY(change.getKey()), change.getValue());
+        }
+    }
+
+    /**
+     * Read the stamp and the changes of a mapped world. The file is kept if it has the same stamp, that is
+     * it was not changed after the save, otherwise it is reverted to the generated types and the changes,
+     * e.g. when the game goes on after a checkpoint, so the journal after it is replayed on the same tiles.
+     */
+    private void readMappedChanges(SaveBuffer buffer) {
+        MappedWorldGrid mapped = (MappedWorldGrid) world;
+        long stamp = buffer.getLong();
+        readChanges(buffer);
+        if (stamp == 0 || mapped.getStamp() != stamp) {
+            mapped.revert();
+            applyChanges();
+            mapped.setStamp(stamp);
+        }
+    }
+
+    /**
+     * Start to interactiveGame.
+     */
+    public void interactiveGame() {
+        if (isChunked()) {
+            int[] spawn = ((ChunkedWorld) world).findSpawn(rand);
+            setPlayer(spawn[0], spawn[1]);
+            return;
+        }
+        int start = this.rand.nextInt(config.getVolume());
+        int iPoint = world instanceof MappedWorldGrid mapped ? mapped.findBrick(start)
+                : ((WorldGrid) world).findBrick(start);
+        if (iPoint >= 0) {
+            setPlayer(config.iPointToX(iPoint), config.iPointToY(iPoint));
         }
-        setPlayer(new Point(iPoint));
     }
 
     /**
      * Set the player to a position.
      */
-    private void setPlayer(Point point) {
-        if (point.getIPoint() < 0 || point.getIPoint() >= Frame.VOLUME || !Point.checkBound(point)) {
+    private void setPlayer(int x, int y) {
+        if (!world.checkBound(x, y)) {
             return;
         }
-        iPointOfPlayer = point;
-        tileBricks[point.getIPoint()] = TileBrick.setPlayer(tileBricks[point.getIPoint()]);
-        fillAllTiles(point, true);
+        int prevX = xOfPlayer;
+        int prevY = yOfPlayer;
+        boolean hadPlayer = hasPlayer;
+        xOfPlayer = x;
+        yOfPlayer = y;
+        hasPlayer = true;
+        if (hadPlayer) {
+            updateTiles(x, y, prevX, prevY, x, y);
+        } else {
+            fillAllTiles(x, y, true);
+        }
         render();
     }
 
+    /**
+     * Set the type of a tile of the world, and keep the change of a finite world that can be generated again.
+     */
+    private void setType(int x, int y, int type) {
+        world.setType(x, y, type);
+        if (changes != null) {
+            changes.put(config.xyToIPoint(x, y), (byte) type);
+        }
+    }
+
     /**
      * Move the player and render the frame.
      */
     public void move(char c) {
+        applyMove(c);
+        recordCommand(c);
+    }
+
+    /**
+     * Move the player by the key of the direction and render the frame.
+     */
+    private void applyMove(char c) {
         switch (c) {
             case 'w' -> move(Point.NORTH);
             case 's' -> move(Point.SOUTH);
@@ -237,15 +929,18 @@ public class Game implements Serializable {
      * Move the player and render the frame.
      */
     private void move(int direction) {
-        Point nextPoint = iPointOfPlayer.getNextPoint(direction);
-        int type = tileBricks[nextPoint.getIPoint()].getType();
+        int nextX = xOfPlayer + Point.getDx(direction);
+        int nextY = yOfPlayer + Point.getDy(direction);
+        if (!world.checkBound(nextX, nextY)) {
+            return;
+        }
+        int type = world.getType(nextX, nextY);
         if (type == Construction.GATES) { // unlock the gate
-            tileBricks[nextPoint.getIPoint()].setType(Construction.UNLOCKED_GATES);
-            fillAllTiles(nextPoint, true);
+            setType(nextX, nextY, Construction.UNLOCKED_GATES);
+            updateTiles(nextX, nextY, nextX, nextY);
             render();
         } else if (type == Construction.BRICKS || type == Construction.UNLOCKED_GATES) { // move to the next point
-            tileBricks[iPointOfPlayer.getIPoint()] = tileBricks[iPointOfPlayer.getIPoint()].getHideOne();
-            setPlayer(nextPoint);
+            setPlayer(nextX, nextY);
         }
     }
 }
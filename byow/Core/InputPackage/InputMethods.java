@@ -1,14 +1,32 @@
 package byow.Core.InputPackage;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * This interface is used to represent the input commands.
  */
 public interface InputMethods {
+    /**
+     * The key that pollNextKey returns when there is no input.
+     */
+    char NO_KEY = '\0';
+
     /**
      * Return the next input.
      */
     char getNextKey();
 
+    /**
+     * Return the next input, or NO_KEY if there is no input in the given time.
+     */
+    char pollNextKey(long timeout, TimeUnit unit);
+
+    /**
+     * Tell the input that the last input is handled, so its frame is shown unless it was handed to a render thread.
+     */
+    default void frameShown() {
+    }
+
     /**
      * Return if there is a next input.
      */
@@ -1,22 +1,194 @@
 package byow.Core.InputPackage;
 
-import edu.princeton.cs.introcs.StdDraw;
+import byow.TileEngine.RenderThread;
+
+import java.awt.KeyEventDispatcher;
+import java.awt.KeyboardFocusManager;
+import java.awt.event.KeyEvent;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
- * This class is used to represent the input by the keyboard.
+ * This class is used to represent the input by the keyboard, typed in the window of StdDraw or of an AtlasRenderer.
+ * The typed keys of any window are put into a blocking queue by the AWT event thread, so waiting for a key
+ * takes no CPU. The time from a key to its frame on the screen is measured, see getLatencyReport:
+ * the frame of a key is the first frame handed to a RenderThread after the key is read, and it is measured when
+ * the RenderThread has drawn it; a key without such a frame is measured by frameShown.
  */
-public class KeyInput implements InputMethods {
+public class KeyInput implements InputMethods, RenderThread.FrameListener {
+
+    /**
+     * A typed key and the time when it was typed, in nanoseconds.
+     */
+    private record TypedKey(char key, long time) {
+    }
+
+    /**
+     * The time when a key was typed, and the number of its frame that is handed to the RenderThread.
+     */
+    private record HandedKey(long time, long frame) {
+    }
+
+    /**
+     * The typed keys that are not read yet.
+     */
+    private final BlockingQueue<TypedKey> typedKeys;
+    /**
+     * The dispatcher that gets the typed keys from the AWT event thread, it does not consume the keys.
+     */
+    private final KeyEventDispatcher dispatcher;
+    /**
+     * The time of the last read key.
+     */
+    private long keyTime;
+    /**
+     * True if the frame of the last read key is neither handed to the RenderThread nor shown yet.
+     */
+    private boolean isKeyPending;
+    /**
+     * The keys whose frames are handed to the RenderThread but not drawn yet, in the order of their frames.
+     */
+    private final Deque<HandedKey> handedKeys;
+    /**
+     * The times from the keys to their frames, in nanoseconds.
+     */
+    private long[] latencies;
+    /**
+     * The count of the times from the keys to their frames.
+     */
+    private int latencyCount;
+
+    /**
+     * Create an input of the keys that are typed from now on.
+     */
+    public KeyInput() {
+        this.typedKeys = new LinkedBlockingQueue<>();
+        this.isKeyPending = false;
+        this.handedKeys = new ArrayDeque<>();
+        this.latencies = new long[64];
+        this.latencyCount = 0;
+        this.dispatcher = e -> {
+            if (e.getID() == KeyEvent.KEY_TYPED && e.getKeyChar() != KeyEvent.CHAR_UNDEFINED) {
+                typedKeys.offer(new TypedKey(Character.toLowerCase(e.getKeyChar()), System.nanoTime()));
+            }
+            return false;
+        };
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(dispatcher);
+    }
+
     @Override
     public char getNextKey() {
-        while (true) {
-            if (StdDraw.hasNextKeyTyped()) {
-                return Character.toLowerCase(StdDraw.nextKeyTyped());
-            }
+        try {
+            return read(typedKeys.take());
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a key.");
+        }
+    }
+
+    @Override
+    public char pollNextKey(long timeout, TimeUnit unit) {
+        try {
+            TypedKey typedKey = typedKeys.poll(timeout, unit);
+            return typedKey == null ? NO_KEY : read(typedKey);
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            return NO_KEY;
+        }
+    }
+
+    /**
+     * Return the key of a typed key, and keep its time until its frame is shown.
+     */
+    private char read(TypedKey typedKey) {
+        keyTime = typedKey.time();
+        isKeyPending = true;
+        return typedKey.key();
+    }
+
+    /**
+     * The last read key is handled, its frame is on the screen if it was not handed to the RenderThread,
+     * e.g. the frame was drawn at once, or the key changed nothing.
+     */
+    @Override
+    public synchronized void frameShown() {
+        if (!isKeyPending) {
+            return;
+        }
+        addLatency(System.nanoTime() - keyTime);
+        isKeyPending = false;
+    }
+
+    /**
+     * The frame is the frame of the last read key if the key has no frame yet.
+     */
+    @Override
+    public synchronized void frameHanded(long frame) {
+        if (!isKeyPending) {
+            return;
+        }
+        handedKeys.addLast(new HandedKey(keyTime, frame));
+        isKeyPending = false;
+    }
+
+    /**
+     * The keys of the frame and of the frames before it are on the screen, it is called by the RenderThread.
+     */
+    @Override
+    public synchronized void frameDrawn(long frame) {
+        long now = System.nanoTime();
+        while (!handedKeys.isEmpty() && handedKeys.peekFirst().frame() <= frame) {
+            addLatency(now - handedKeys.removeFirst().time());
+        }
+    }
+
+    /**
+     * Add the time from a key to its frame on the screen.
+     */
+    private void addLatency(long latency) {
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        }
+        latencies[latencyCount++] = latency;
+    }
+
+    /**
+     * Return the count of the keys whose frames were shown.
+     */
+    public synchronized int getLatencyCount() {
+        return latencyCount;
+    }
+
+    /**
+     * Return the mean, the 99th percentile and the max of the times from the keys to their frames on the screen.
+     */
+    public synchronized String getLatencyReport() {
+        if (latencyCount == 0) {
+            return "Input latency: no key.";
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long latency : sorted) {
+            total += latency;
         }
+        return String.format("Input latency of %d keys: mean %.2f ms, p99 %.2f ms, max %.2f ms.", latencyCount,
+                total / 1e6 / latencyCount, sorted[(latencyCount * 99 + 99) / 100 - 1] / 1e6, sorted[latencyCount - 1] / 1e6);
     }
 
     @Override
     public boolean possibleNextInput() {
         return true;
     }
+
+    /**
+     * Stop to get the typed keys.
+     */
+    public void close() {
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().removeKeyEventDispatcher(dispatcher);
+    }
 }
@@ -1,5 +1,7 @@
 package byow.Core.InputPackage;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * This class is used to represent the input by a string.
  */
@@ -26,6 +28,14 @@ public class StrInput implements InputMethods{
         return c;
     }
 
+    /**
+     * Return the next input at once, or NO_KEY at the end of the string.
+     */
+    @Override
+    public char pollNextKey(long timeout, TimeUnit unit) {
+        return possibleNextInput() ? getNextKey() : NO_KEY;
+    }
+
     @Override
     public boolean possibleNextInput() {
         return index < str.length();
@@ -0,0 +1,197 @@
+package byow.Core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is an append-only file of the commands that changed a game, e.g. the moves,
+ * one byte a command. The header is the magic, the version, the id of the journal and the command count of
+ * the game when the journal was created, so the command of a count is found by its offset at once.
+ * A game is restored by its latest checkpoint, that is a save of the game with its command count,
+ * and the commands of the journal after that count.
+ * A command is written to the OS at once, so it is kept if the game crashes, it is forced to the disk by force.
+ * Throws IllegalArgumentException in case of problems, the same as Utils.
+ */
+public class Journal {
+
+    /**
+     * The count of commands between two checkpoints, that limits the commands to replay.
+     */
+    public static final int CHECKPOINT_INTERVAL = 1000;
+    /**
+     * The first 4 bytes of a journal, that are "BYOJ".
+     */
+    private static final int MAGIC = 0x42594F4A;
+    /**
+     * The version of the journal.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The bytes of the header: the magic, the version, the id and the first command count.
+     */
+    private static final int HEADER_SIZE = 22;
+    /**
+     * The file of the journal.
+     */
+    private final FileChannel channel;
+    /**
+     * The id of the journal, that is saved by the game too.
+     */
+    private final long id;
+    /**
+     * The command count of the game when the journal was created.
+     */
+    private final long base;
+    /**
+     * The buffer of a command to write.
+     */
+    private final ByteBuffer command;
+
+    /**
+     * Create a journal of the opened file.
+     */
+    private Journal(FileChannel channel, long id, long base) {
+        this.channel = channel;
+        this.id = id;
+        this.base = base;
+        this.command = ByteBuffer.allocate(1);
+    }
+
+    /**
+     * Return a new journal of the given id, that starts after the given command count.
+     * The file is created or overwritten.
+     */
+    public static Journal create(File file, long id, long base) {
+        try {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort((short) VERSION).putLong(id).putLong(base).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+            return new Journal(channel, id, base);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Return the journal of the file to read.
+     */
+    public static Journal open(File file) {
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("must be a normal file");
+        }
+        try {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    channel.close();
+                    throw new IllegalArgumentException("Not a journal: " + file);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getShort() != VERSION) {
+                channel.close();
+                throw new IllegalArgumentException("Not a journal of this version: " + file);
+            }
+            return new Journal(channel, header.getLong(), header.getLong());
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Return the id of the journal.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Return the command count of the game when the journal was created.
+     */
+    public long getBase() {
+        return base;
+    }
+
+    /**
+     * Return the command count of the game after the last command of the journal.
+     */
+    public long getEnd() {
+        try {
+            return base + channel.size() - HEADER_SIZE;
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Write a command to the end of the journal.
+     */
+    public void append(char c) {
+        command.clear();
+        command.put((byte) c).flip();
+        try {
+            channel.write(command);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Return the commands after the given command count, that must be between the base and the end.
+     */
+    public char[] readFrom(long count) {
+        long end = getEnd();
+        if (count < base || count > end) {
+            throw new IllegalArgumentException("The command " + count + " is not in the journal.");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - count));
+        try {
+            long position = HEADER_SIZE + count - base;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IllegalArgumentException("The journal ends too early.");
+                }
+                position += read;
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        char[] commands = new char[buffer.capacity()];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = (char) buffer.get(i);
+        }
+        return commands;
+    }
+
+    /**
+     * Force the commands to the disk.
+     */
+    public void force() {
+        try {
+            channel.force(false);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Close the file of the journal.
+     */
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package byow.Core.Legacy;
+
+import java.io.Serializable;
+
+/**
+ * This class has the fields of the first Game, that was saved by Java serialization with all its TileBricks.
+ * It is only created by LegacySave when it reads such a save, the simple name must be Game to match the save.
+ */
+class Game implements Serializable {
+
+    /**
+     * The version of the first Game in the saves.
+     */
+    private static final long serialVersionUID = 4606483866762410743L;
+    /**
+     * The iPoint of the player, that is x * LegacySave.WIDTH_FACTOR + y.
+     */
+    int iPointOfPlayer;
+    /**
+     * The scope of player version, 0 for infinity.
+     */
+    int visionScope;
+    /**
+     * The TileBrick of every iPoint.
+     */
+    TileBrick[] tileBricks;
+}
@@ -0,0 +1,169 @@
+package byow.Core.Legacy;
+
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class reads the saves of Java serialization. A save of the first Game, that is a TileBrick of every tile,
+ * is read into the classes of this package and converted into a WorldGrid; any other save is read as it is.
+ * Throws IllegalArgumentException in case of problems, the same as Utils.
+ */
+public class LegacySave {
+
+    /**
+     * The width and height of the world of the first Game.
+     */
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 30;
+    /**
+     * The factor of the X in an iPoint of the first Game, that is x * WIDTH_FACTOR + y.
+     */
+    private static final int WIDTH_FACTOR = 100;
+    /**
+     * The type of the tile of the player in the first Game.
+     */
+    private static final int PLAYER = 100;
+    /**
+     * The key of the tiles that belong to no construction.
+     */
+    private static final String NO_CONSTRUCTION_KEY = "None";
+    /**
+     * The class names of the first Game in a save.
+     */
+    private static final String GAME_CLASS = "byow.Core.Game";
+    private static final String TILE_BRICK_CLASS = "byow.Core.TileBrick";
+    private static final String TILE_BRICKS_CLASS = "[Lbyow.Core.TileBrick;";
+    /**
+     * The version of the first Game in a save.
+     */
+    private static final long GAME_VERSION = 4606483866762410743L;
+    /**
+     * The world of the save.
+     */
+    private final WorldGrid grid;
+    /**
+     * The X and Y of the player, and true if the player was placed.
+     */
+    private final int xOfPlayer;
+    private final int yOfPlayer;
+    private final boolean hasPlayer;
+    /**
+     * The scope of player version, 0 for infinity.
+     */
+    private final int visionScope;
+
+    /**
+     * Convert a save of the first Game, the constructions are given ids by the order of their first tiles.
+     */
+    private LegacySave(Game game) {
+        if (game.tileBricks == null || game.tileBricks.length != WIDTH * WIDTH_FACTOR + HEIGHT) {
+            throw new IllegalArgumentException("The save of the first version has a wrong count of tiles.");
+        }
+        WorldConfig config = new WorldConfig(WIDTH, HEIGHT);
+        Map<String, Integer> ids = new HashMap<>();
+        int playerX = 0;
+        int playerY = 0;
+        boolean isPlaced = false;
+        this.grid = new WorldGrid(config);
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                TileBrick brick = game.tileBricks[x * WIDTH_FACTOR + y];
+                if (brick != null && brick.type == PLAYER) {
+                    playerX = x;
+                    playerY = y;
+                    isPlaced = true;
+                    brick = brick.hideOne;
+                }
+                if (brick == null || NO_CONSTRUCTION_KEY.equals(brick.constructionKey)) {
+                    continue;
+                }
+                Integer id = ids.get(brick.constructionKey);
+                if (id == null) {
+                    id = grid.newConstructionId();
+                    ids.put(brick.constructionKey, id);
+                }
+                grid.setValue(config.xyToIPoint(x, y), brick.type, brick.constructionType, id);
+            }
+        }
+        this.xOfPlayer = playerX;
+        this.yOfPlayer = playerY;
+        this.hasPlayer = isPlaced;
+        this.visionScope = game.visionScope;
+    }
+
+    /**
+     * Return the object of the save file, a save of the first Game is returned as a LegacySave.
+     */
+    public static Object readObject(File file) {
+        try (ObjectInputStream in = new LegacyInputStream(file)) {
+            Object result = in.readObject();
+            return result instanceof Game game ? new LegacySave(game) : result;
+        } catch (IOException | ClassNotFoundException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Return the world of the save.
+     */
+    public WorldGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Return the X of the player.
+     */
+    public int getXOfPlayer() {
+        return xOfPlayer;
+    }
+
+    /**
+     * Return the Y of the player.
+     */
+    public int getYOfPlayer() {
+        return yOfPlayer;
+    }
+
+    /**
+     * Return true if the player was placed.
+     */
+    public boolean hasPlayer() {
+        return hasPlayer;
+    }
+
+    /**
+     * Return the vision scope.
+     */
+    public int getVisionScope() {
+        return visionScope;
+    }
+
+    /**
+     * A stream that reads the classes of the first Game by the classes of this package.
+     * A Game of another version is the current one.
+     */
+    private static class LegacyInputStream extends ObjectInputStream {
+
+        LegacyInputStream(File file) throws IOException {
+            super(new FileInputStream(file));
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            return switch (desc.getName()) {
+                case GAME_CLASS -> desc.getSerialVersionUID() == GAME_VERSION ? Game.class : super.resolveClass(desc);
+                case TILE_BRICK_CLASS -> TileBrick.class;
+                case TILE_BRICKS_CLASS -> TileBrick[].class;
+                default -> super.resolveClass(desc);
+            };
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package byow.Core.Legacy;
+
+import java.io.Serializable;
+
+/**
+ * This class has the fields of the first TileBrick, that was the properties of a tile in a save of the first Game.
+ * It is only created by LegacySave when it reads such a save, the simple name must be TileBrick to match the save.
+ */
+class TileBrick implements Serializable {
+
+    /**
+     * The version of the first TileBrick in the saves.
+     */
+    private static final long serialVersionUID = -4042469658594966689L;
+    /**
+     * The type of the tile, e.g. Construction.BRICKS, or LegacySave.PLAYER for the tile of the player.
+     */
+    int type;
+    /**
+     * The construction type of the tile, the same as the one of WorldGrid.
+     */
+    int constructionType;
+    /**
+     * The key of the construction of the tile, or "None".
+     */
+    String constructionKey;
+    /**
+     * The tile under the player, or null.
+     */
+    TileBrick hideOne;
+}
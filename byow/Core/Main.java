@@ -1,24 +1,60 @@
 package byow.Core;
 
+import byow.Core.World.Frame;
+import byow.TileEngine.TileRenderer;
+
+import java.awt.GraphicsEnvironment;
+import java.io.File;
+
 /** This is the main entry point for the program. This class simply parses
  *  the command line inputs, and lets the byow.Core.Engine class take over
  *  in either keyboard or input string mode.
+ *  The renderer is chosen by the system property byow.renderer, e.g. -Dbyow.renderer=atlas,
+ *  it is headless by default when there is no display.
+ *  The size of a new finite world is given by the system property byow.size, e.g. -Dbyow.size=2000x1000.
+ *  A new finite world is kept in the memory-mapped file given by the system property byow.map,
+ *  e.g. -Dbyow.map=my_world.map, instead of the heap.
  */
 public class Main {
     public static void main(String[] args) {
+        String renderer = System.getProperty("byow.renderer",
+                GraphicsEnvironment.isHeadless() ? TileRenderer.HEADLESS : TileRenderer.STD_DRAW);
+        WorldConfig config = parseSize(System.getProperty("byow.size"));
+        String map = System.getProperty("byow.map");
+        File mapFile = map == null ? null : new File(map);
         if (args.length > 2) {
             System.out.println("Can only have two arguments - the flag and input string");
             System.exit(0);
         } else if (args.length == 2 && args[0].equals("-s")) {
-            Engine engine = new Engine();
-            engine.interactWithInputString(args[1]);
-            System.out.println(engine.toString());
+            Engine engine = new Engine(renderer, config, mapFile);
+            WorldView view = engine.interactWithInputString(args[1]);
+            if (view != null) {
+                System.out.print(view);
+                System.out.printf("Hash: %016x%n", view.contentHash());
+            }
         // DO NOT CHANGE THESE LINES YET ;)
         } else if (args.length == 2 && args[0].equals("-p")) { System.out.println("Coming soon."); } 
         // DO NOT CHANGE THESE LINES YET ;)
         else {
-            Engine engine = new Engine();
+            Engine engine = new Engine(renderer, config, mapFile);
             engine.interactWithKeyboard();
         }
     }
+
+    /**
+     * Return the config of the size as WIDTHxHEIGHT, or the default config if the size is null.
+     * The size must be at least Frame.MIN_SIDE_LENGTH both ways.
+     */
+    private static WorldConfig parseSize(String size) {
+        if (size == null) {
+            return WorldConfig.DEFAULT;
+        }
+        String[] parts = size.toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("The size must be WIDTHxHEIGHT: " + size);
+        }
+        WorldConfig config = new WorldConfig(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        Frame.checkSize(config);
+        return config;
+    }
 }
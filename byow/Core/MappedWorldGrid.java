@@ -0,0 +1,463 @@
+package byow.Core;
+
+import byow.Core.World.Construction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class saves the properties of every tile of a finite world in a memory-mapped file,
+ * so the world is not held on the heap, and the pages of the file are read by the OS when they are touched.
+ * Opening a file only maps it, so it takes the same time for any size of the world,
+ * and a changed tile is written to the mapped file in place. A world is created into the file by parts,
+ * see WorldStore, so creating it does not hold the world on the heap either.
+ * The file is a header and 4 planes of the tiles by iPoint: the types (byte), the construction types (byte),
+ * the generated types (byte) and the construction ids (int), so the types of all the tiles are one buffer,
+ * the same as WorldGrid.getTypes. The generated types are the types before the game changed them,
+ * so the file is reverted to a save by the changes of the save, see revert.
+ * Throws IllegalArgumentException in case of problems, the same as Utils.
+ */
+public class MappedWorldGrid implements WorldMap, WorldStore {
+
+    /**
+     * The first 4 bytes of a mapped world file, that are "BYOM".
+     */
+    private static final int MAGIC = 0x42594F4D;
+    /**
+     * The version of the mapped world file, 1 was a file of interleaved cells, 2 had no generated types.
+     */
+    private static final int VERSION = 3;
+    /**
+     * The bytes of the header: the magic, the version, the width, the height, the count of constructions
+     * and the stamp of the save that the tiles are equal to.
+     */
+    private static final int HEADER_SIZE = 32;
+    /**
+     * The bytes of a construction id.
+     */
+    private static final int ID_SIZE = 4;
+    /**
+     * A mapping is limited to 2GB, so the construction ids are mapped by segments of 2^SEGMENT_SHIFT ids.
+     */
+    private static final int SEGMENT_SHIFT = 28;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    /**
+     * The bytes that fill a new file, by a plane.
+     */
+    private static final int FILL_SIZE = 1 << 16;
+    /**
+     * The mapped file.
+     */
+    private final File file;
+    /**
+     * The config of the world.
+     */
+    private final WorldConfig config;
+    /**
+     * The mapped header of the file.
+     */
+    private final MappedByteBuffer header;
+    /**
+     * The mapped types, construction types and generated types of the tiles by iPoint,
+     * a snapshot has no generated types.
+     */
+    private final MappedByteBuffer types;
+    private final MappedByteBuffer constructionTypes;
+    private final MappedByteBuffer generatedTypes;
+    /**
+     * The mapped construction ids of the tiles by segments, that are empty for a snapshot.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Map the file of the given config, the file is created or extended to the size of the config.
+     * A read-only file is a snapshot, that has the header, the types and the construction types only.
+     */
+    private MappedWorldGrid(File file, WorldConfig config, boolean isCreated, FileChannel.MapMode mode) {
+        this.file = file;
+        this.config = config;
+        long volume = config.getVolume();
+        boolean isSnapshot = mode == FileChannel.MapMode.READ_ONLY;
+        int count = isSnapshot ? 0 : (int) ((volume + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        this.segments = new MappedByteBuffer[count];
+        try (FileChannel channel = isCreated
+                ? FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)
+                : FileChannel.open(file.toPath(), isSnapshot
+                        ? new StandardOpenOption[]{StandardOpenOption.READ}
+                        : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE})) {
+            long size = isSnapshot ? HEADER_SIZE + 2 * volume : idsPosition(volume) + volume * ID_SIZE;
+            if (!isCreated && channel.size() != size) {
+                throw new IllegalArgumentException("The mapped world file has a wrong size: " + file);
+            }
+            this.header = channel.map(mode, 0, HEADER_SIZE);
+            this.types = channel.map(mode, HEADER_SIZE, volume);
+            this.constructionTypes = channel.map(mode, HEADER_SIZE + volume, volume);
+            this.generatedTypes = isSnapshot ? null : channel.map(mode, HEADER_SIZE + 2 * volume, volume);
+            for (int i = 0; i < count; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long ids = Math.min(1L << SEGMENT_SHIFT, volume - first);
+                segments[i] = channel.map(mode, idsPosition(volume) + first * ID_SIZE, ids * ID_SIZE);
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Return the position of the plane of the construction ids in the file.
+     */
+    private static long idsPosition(long volume) {
+        return HEADER_SIZE + 3 * volume;
+    }
+
+    /**
+     * Create an empty world of the given config in the file, creating or overwriting it as needed,
+     * and return the mapped world. The world is created by copyFrom.
+     */
+    public static MappedWorldGrid create(File file, WorldConfig config) {
+        MappedWorldGrid mapped = new MappedWorldGrid(file, config, true, FileChannel.MapMode.READ_WRITE);
+        mapped.header.putInt(0, MAGIC);
+        mapped.header.putShort(4, (short) VERSION);
+        mapped.header.putInt(8, config.getWidth());
+        mapped.header.putInt(12, config.getHeight());
+        mapped.header.putInt(16, 0);
+        mapped.header.putLong(24, 0);
+        fill(mapped.types, (byte) Construction.NOTHING);
+        fill(mapped.constructionTypes, (byte) WorldGrid.CONSTRUCTION_TYPE_NOTHING);
+        fill(mapped.generatedTypes, (byte) Construction.NOTHING);
+        for (MappedByteBuffer segment : mapped.segments) {
+            fill(segment, (byte) WorldGrid.NO_CONSTRUCTION);
+        }
+        return mapped;
+    }
+
+    /**
+     * Fill all the bytes of a buffer by the value, a NO_CONSTRUCTION id is 4 bytes of -1.
+     */
+    private static void fill(MappedByteBuffer buffer, byte value) {
+        byte[] values = new byte[FILL_SIZE];
+        Arrays.fill(values, value);
+        for (int position = 0; position < buffer.capacity(); position += FILL_SIZE) {
+            buffer.put(position, values, 0, Math.min(FILL_SIZE, buffer.capacity() - position));
+        }
+    }
+
+    /**
+     * Return the mapped world of the file, only the header is read.
+     */
+    public static MappedWorldGrid open(File file) {
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("must be a normal file");
+        }
+        WorldConfig config;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalArgumentException("Not a mapped world file: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("Not a mapped world file: " + file);
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IllegalArgumentException("Unknown version of the mapped world file: " + header.getShort(4));
+            }
+            config = new WorldConfig(header.getInt(8), header.getInt(12));
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return new MappedWorldGrid(file, config, false, FileChannel.MapMode.READ_WRITE);
+    }
+
+    /**
+     * Return a read-only snapshot of the tiles, that is not changed by the later changes of the file.
+     * The header, the types and the construction types are copied to a temporary file by the OS,
+     * that is mapped and deleted, so the snapshot takes no heap, and it has no construction ids.
+     */
+    public MappedWorldGrid snapshot() {
+        File copy;
+        try {
+            copy = File.createTempFile("snapshot", ".map", file.getAbsoluteFile().getParentFile());
+            try (FileChannel from = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 FileChannel to = FileChannel.open(copy.toPath(), StandardOpenOption.WRITE)) {
+                long size = HEADER_SIZE + 2L * getVolume();
+                for (long position = 0; position < size; ) {
+                    position += from.transferTo(position, size - position, to);
+                }
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        try {
+            return new MappedWorldGrid(copy, config, false, FileChannel.MapMode.READ_ONLY);
+        } finally {
+            if (!copy.delete()) {
+                copy.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Write the changed pages of the file to the disk.
+     */
+    public void force() {
+        header.force();
+        types.force();
+        constructionTypes.force();
+        if (generatedTypes != null) {
+            generatedTypes.force();
+        }
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Return the mapped file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Return the config of the world.
+     */
+    @Override
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Return the volume of the world.
+     */
+    public int getVolume() {
+        return config.getVolume();
+    }
+
+    /**
+     * Return the types of the tiles by iPoint, that cannot be changed by the buffer,
+     * the same as WorldGrid.getTypes.
+     */
+    public ByteBuffer getTypes() {
+        return types.asReadOnlyBuffer();
+    }
+
+    /**
+     * Return the construction types of the tiles by iPoint, that cannot be changed by the buffer.
+     */
+    public ByteBuffer getConstructionTypes() {
+        return constructionTypes.asReadOnlyBuffer();
+    }
+
+    /**
+     * Reserve the given count of ids for the constructions that are created in a part, and return the first one.
+     * It is not thread-safe.
+     */
+    @Override
+    public int newConstructionIds(int count) {
+        int first = header.getInt(16);
+        header.putInt(16, first + count);
+        return first;
+    }
+
+    /**
+     * Return the count of constructions of the world.
+     */
+    @Override
+    public int getConstructionCount() {
+        return header.getInt(16);
+    }
+
+    /**
+     * Return the stamp of the save that the tiles are equal to, or 0 if a tile was changed after the save.
+     */
+    public long getStamp() {
+        return header.getLong(24);
+    }
+
+    /**
+     * Set the stamp of the save that the tiles are equal to, it is cleared by the next setType.
+     */
+    public void setStamp(long stamp) {
+        header.putLong(24, stamp);
+    }
+
+    /**
+     * Set a new random stamp for a save of the tiles of now, and return it.
+     */
+    public long newStamp() {
+        long stamp;
+        do {
+            stamp = new Random().nextLong();
+        } while (stamp == 0);
+        setStamp(stamp);
+        return stamp;
+    }
+
+    /**
+     * Set every changed tile back to its generated type, the tiles are compared by blocks.
+     */
+    public void revert() {
+        byte[] current = new byte[FILL_SIZE];
+        byte[] generated = new byte[FILL_SIZE];
+        for (int position = 0; position < getVolume(); position += FILL_SIZE) {
+            int length = Math.min(FILL_SIZE, getVolume() - position);
+            types.get(position, current, 0, length);
+            generatedTypes.get(position, generated, 0, length);
+            if (!Arrays.equals(current, 0, length, generated, 0, length)) {
+                types.put(position, generated, 0, length);
+            }
+        }
+        setStamp(0);
+    }
+
+    /**
+     * Copy all the tiles of a part to the given X and Y of southwest corner in the mapped file,
+     * the ids of the constructions of the part are moved by idOffset. The types are also the generated types,
+     * since a world is created by parts.
+     */
+    @Override
+    public void copyFrom(WorldGrid part, int x, int y, int idOffset) {
+        WorldConfig partConfig = part.getConfig();
+        WorldGrid.checkPart(config, partConfig, x, y);
+        ByteBuffer partTypes = part.getTypes();
+        ByteBuffer partConstructionTypes = part.getConstructionTypes();
+        int partHeight = partConfig.getHeight();
+        for (int i = 0; i < partConfig.getWidth(); i++) {
+            int from = partConfig.xyToIPoint(i, 0);
+            int to = config.xyToIPoint(x + i, y);
+            types.put(to, partTypes, from, partHeight);
+            generatedTypes.put(to, partTypes, from, partHeight);
+            constructionTypes.put(to, partConstructionTypes, from, partHeight);
+            for (int j = 0; j < partHeight; j++) {
+                int id = part.getConstructionId(from + j);
+                setConstructionId(to + j, id == WorldGrid.NO_CONSTRUCTION ? WorldGrid.NO_CONSTRUCTION : id + idOffset);
+            }
+        }
+    }
+
+    /**
+     * Copy the tiles from the given X and Y of southwest corner in the mapped file to all the tiles of a part.
+     */
+    @Override
+    public void copyTo(WorldGrid part, int x, int y) {
+        WorldConfig partConfig = part.getConfig();
+        WorldGrid.checkPart(config, partConfig, x, y);
+        for (int i = 0; i < partConfig.getWidth(); i++) {
+            int from = config.xyToIPoint(x + i, y);
+            int to = partConfig.xyToIPoint(i, 0);
+            for (int j = 0; j < partConfig.getHeight(); j++) {
+                part.setValue(to + j, getType(from + j), getConstructionType(from + j), getConstructionId(from + j));
+            }
+        }
+    }
+
+    /**
+     * Return the segment of the construction id at iPoint.
+     */
+    private MappedByteBuffer segmentOf(int iPoint) {
+        if (segments.length == 0) {
+            throw new IllegalStateException("A snapshot has no construction ids.");
+        }
+        return segments[iPoint >>> SEGMENT_SHIFT];
+    }
+
+    /**
+     * Return the position of the construction id at iPoint in its segment.
+     */
+    private static int positionOf(int iPoint) {
+        return (iPoint & SEGMENT_MASK) * ID_SIZE;
+    }
+
+    /**
+     * Return the type of the tile at iPoint.
+     */
+    public int getType(int iPoint) {
+        return types.get(iPoint);
+    }
+
+    /**
+     * Return the construction type of the tile at iPoint.
+     */
+    public int getConstructionType(int iPoint) {
+        return constructionTypes.get(iPoint);
+    }
+
+    /**
+     * Return the construction id of the tile at iPoint.
+     */
+    public int getConstructionId(int iPoint) {
+        return segmentOf(iPoint).getInt(positionOf(iPoint));
+    }
+
+    /**
+     * Set the construction id of the tile at iPoint in the mapped file.
+     */
+    private void setConstructionId(int iPoint, int id) {
+        segmentOf(iPoint).putInt(positionOf(iPoint), id);
+    }
+
+    /**
+     * Set the type of the tile at iPoint in the mapped file, the tiles are not equal to a save any more.
+     */
+    public void setType(int iPoint, int type) {
+        types.put(iPoint, (byte) type);
+        setStamp(0);
+    }
+
+    @Override
+    public boolean checkBound(int x, int y) {
+        return config.checkBound(x, y);
+    }
+
+    @Override
+    public int getType(int x, int y) {
+        return getType(config.xyToIPoint(x, y));
+    }
+
+    @Override
+    public int getConstructionType(int x, int y) {
+        return getConstructionType(config.xyToIPoint(x, y));
+    }
+
+    @Override
+    public void setType(int x, int y, int type) {
+        setType(config.xyToIPoint(x, y), type);
+    }
+
+    /**
+     * Return the same hash as WorldGrid.contentHash of the same tiles.
+     */
+    @Override
+    public long contentHash() {
+        long hash = WorldGrid.hashStep(WorldGrid.hashStep(WorldGrid.HASH_BASIS, config.getWidth()), config.getHeight());
+        for (int iPoint = 0; iPoint < getVolume(); iPoint++) {
+            hash = WorldGrid.hashStep(hash, types.get(iPoint));
+        }
+        return hash;
+    }
+
+    /**
+     * Return the iPoint of the nearest brick before or after the start, or -1 if there is no brick,
+     * the same as WorldGrid.findBrick.
+     */
+    public int findBrick(int start) {
+        for (int i = start; i >= 0; i--) {
+            if (getType(i) == Construction.BRICKS) {
+                return i;
+            }
+        }
+        for (int i = start + 1; i < getVolume(); i++) {
+            if (getType(i) == Construction.BRICKS) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,8 +1,6 @@
 package byow.Core;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * This class represent a x,y coordinate system.
@@ -14,6 +12,10 @@ public class Point implements Serializable {
      * The integer index of the point.
      */
     private final int iPoint;
+    /**
+     * The config of the world that the point belongs to.
+     */
+    private final WorldConfig config;
     /**
      * Follows are the 4 directions.
      */
@@ -22,22 +24,22 @@ public class Point implements Serializable {
     public static final int WEST = 2;
     public static final int EAST = 3;
     public static final int DIRECTION_INIT = 4;
-    public static final int WIDTH_FACTOR = (int) Math.pow(10, String.valueOf(Engine.WIDTH).length());
 
     /**
      * Create an instance by given X and Y.
      */
-    public Point(int x, int y) {
+    public Point(int x, int y, WorldConfig config) {
         this.x = x;
         this.y = y;
-        this.iPoint = xyToIPoint(x, y);
+        this.config = config;
+        this.iPoint = config.xyToIPoint(x, y);
     }
 
     /**
      * Create an instance by given iPoint.
      */
-    public Point(int iPoint) {
-        this(iPoint / WIDTH_FACTOR, iPoint % WIDTH_FACTOR);
+    public Point(int iPoint, WorldConfig config) {
+        this(config.iPointToX(iPoint), config.iPointToY(iPoint), config);
     }
 
     /**
@@ -62,22 +64,10 @@ public class Point implements Serializable {
     }
 
     /**
-     * Return the Vision points of the given point and the vision scope that defined in Game.class.
+     * return the config of the world.
      */
-    public static List<Integer> getVision(Point point, int visionScope) {
-        List<Integer> pointList = new ArrayList<>();
-        Point sw = point.getShiftPoint(-visionScope, -visionScope);
-        int startX = sw.getX();
-        int startY = sw.getY();
-        for (int i = startX; i < startX + visionScope * 2 + 1; i++) {
-            for (int j = startY; j < startY + visionScope * 2 + 1; j++) {
-                if (Point.checkBound(i, j)) {
-                    Point p = new Point(i, j);
-                    pointList.add(p.getIPoint());
-                }
-            }
-        }
-        return pointList;
+    public WorldConfig getConfig() {
+        return this.config;
     }
 
     /**
@@ -103,49 +93,58 @@ public class Point implements Serializable {
      * Return the next point of the given point and the given direction.
      */
     public Point getNextPoint(int direction) {
-        return switch (direction) {
-            case NORTH -> getShiftPoint(0, 1);
-            case SOUTH -> getShiftPoint(0, -1);
-            case WEST -> getShiftPoint(-1, 0);
-            case EAST -> getShiftPoint(1, 0);
-            default -> throw new IndexOutOfBoundsException("No such direction.");
-        };
+        return getShiftPoint(getDx(direction), getDy(direction));
     }
 
     /**
-     * Return the neighbours of the given point by the sequence NSWE.
+     * Return the shift of X by the given direction.
      */
-    public static Point[] getNeighbours(Point point) {
-        return new Point[]{point.getNextPoint(NORTH), point.getNextPoint(SOUTH),
-                point.getNextPoint(WEST), point.getNextPoint(EAST)};
+    public static int getDx(int direction) {
+        return switch (direction) {
+            case NORTH, SOUTH -> 0;
+            case WEST -> -1;
+            case EAST -> 1;
+            default -> throw new IndexOutOfBoundsException("No such direction.");
+        };
     }
 
     /**
-     * return the point by shift value.
+     * Return the shift of Y by the given direction.
      */
-    public Point getShiftPoint(int dx, int dy) {
-        return new Point(this.x + dx, this.y + dy);
+    public static int getDy(int direction) {
+        return switch (direction) {
+            case NORTH -> 1;
+            case SOUTH -> -1;
+            case WEST, EAST -> 0;
+            default -> throw new IndexOutOfBoundsException("No such direction.");
+        };
     }
 
     /**
-     * return the index value (xy) of the point.
+     * Return the opposite of the given direction.
      */
-    private int xyToIPoint(int x, int y) {
-        return x * WIDTH_FACTOR + y;
+    public static int getOpposite(int direction) {
+        return switch (direction) {
+            case NORTH -> SOUTH;
+            case SOUTH -> NORTH;
+            case WEST -> EAST;
+            case EAST -> WEST;
+            default -> throw new IndexOutOfBoundsException("No such direction.");
+        };
     }
 
     /**
-     * Check if the point is in the frame.
+     * return the point by shift value.
      */
-    public static boolean checkBound(int x, int y) {
-        return x >= 0 && x < Engine.WIDTH && y >= 0 && y <= Engine.HEIGHT;
+    public Point getShiftPoint(int dx, int dy) {
+        return new Point(this.x + dx, this.y + dy, this.config);
     }
 
     /**
      * Check if the point is in the frame.
      */
     public static boolean checkBound(Point point) {
-        return checkBound(point.getX(), point.getY());
+        return point.getConfig().checkBound(point.getX(), point.getY());
     }
 
     @Override
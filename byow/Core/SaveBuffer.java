@@ -0,0 +1,263 @@
+package byow.Core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class is the bytes of a save file, that grow when they are written, and are read from or
+ * written to a file by a FileChannel at once. The numbers are big-endian, and a var int is
+ * written 7 bits a byte from the low bits, so the small numbers of a save take 1 byte.
+ * A file is written to a temporary file and renamed over the old one, so a crash never leaves a broken save.
+ * Throws IllegalArgumentException in case of problems, the same as Utils.
+ */
+public class SaveBuffer {
+
+    /**
+     * The first capacity of a buffer to write.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+    /**
+     * The bytes of the buffer.
+     */
+    private byte[] bytes;
+    /**
+     * The position to write or read the next byte.
+     */
+    private int position;
+    /**
+     * The count of bytes that can be read.
+     */
+    private final int limit;
+
+    /**
+     * Create an empty buffer to write.
+     */
+    public SaveBuffer() {
+        this.bytes = new byte[INITIAL_CAPACITY];
+        this.position = 0;
+        this.limit = 0;
+    }
+
+    /**
+     * Create a buffer to read the given bytes.
+     */
+    private SaveBuffer(byte[] bytes) {
+        this.bytes = bytes;
+        this.position = 0;
+        this.limit = bytes.length;
+    }
+
+    /**
+     * Return a buffer of all the bytes of the file to read.
+     */
+    public static SaveBuffer readFile(File file) {
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("must be a normal file");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The file is too large: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IllegalArgumentException("The file ends too early: " + file);
+                }
+            }
+            return new SaveBuffer(buffer.array());
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Write all the written bytes to the file, creating or overwriting it as needed.
+     * The bytes are written to a temporary file in the same folder and forced to the disk,
+     * then the temporary file is renamed to the file at once, so the file is either old or new after a crash.
+     */
+    public void writeFile(File file) {
+        Path path = file.toPath().toAbsolutePath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, position);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            forceFolder(path.getParent());
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Force the entries of the folder to the disk, so the rename is kept after a crash.
+     * Some systems, e.g. Windows, cannot open a folder, and they keep the rename without it.
+     */
+    private static void forceFolder(Path folder) {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException excp) {
+            // the folder cannot be opened, the rename is kept by the system
+        }
+    }
+
+    /**
+     * Make sure the given count of bytes can be written, the capacity doubles when it is full.
+     */
+    private void ensureRemaining(int count) {
+        if (bytes.length - position < count) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + count));
+        }
+    }
+
+    /**
+     * Return true if there are bytes to read.
+     */
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * Write the low 8 bits of the value.
+     */
+    public void putByte(int value) {
+        ensureRemaining(1);
+        bytes[position++] = (byte) value;
+    }
+
+    /**
+     * Write the low 16 bits of the value.
+     */
+    public void putShort(int value) {
+        ensureRemaining(2);
+        bytes[position++] = (byte) (value >> 8);
+        bytes[position++] = (byte) value;
+    }
+
+    /**
+     * Write an int.
+     */
+    public void putInt(int value) {
+        putShort(value >> 16);
+        putShort(value);
+    }
+
+    /**
+     * Write a long.
+     */
+    public void putLong(long value) {
+        putInt((int) (value >> 32));
+        putInt((int) value);
+    }
+
+    /**
+     * Write a non-negative int by 1 to 5 bytes.
+     */
+    public void putVarInt(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("A var int must not be negative: " + value);
+        }
+        ensureRemaining(5);
+        while (value >= 0x80) {
+            bytes[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+    }
+
+    /**
+     * Write a string by the count of its UTF-8 bytes and the bytes.
+     */
+    public void putString(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        putVarInt(utf8.length);
+        ensureRemaining(utf8.length);
+        System.arraycopy(utf8, 0, bytes, position, utf8.length);
+        position += utf8.length;
+    }
+
+    /**
+     * Read a byte.
+     */
+    public byte getByte() {
+        checkRemaining(1);
+        return bytes[position++];
+    }
+
+    /**
+     * Read a short.
+     */
+    public short getShort() {
+        checkRemaining(2);
+        int high = bytes[position++];
+        return (short) (high << 8 | bytes[position++] & 0xFF);
+    }
+
+    /**
+     * Read an int.
+     */
+    public int getInt() {
+        int high = getShort();
+        return high << 16 | getShort() & 0xFFFF;
+    }
+
+    /**
+     * Read a long.
+     */
+    public long getLong() {
+        long high = getInt();
+        return high << 32 | getInt() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Read a non-negative int that was written by putVarInt.
+     */
+    public int getVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = getByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("The save file has a broken var int.");
+    }
+
+    /**
+     * Read a string that was written by putString.
+     */
+    public String getString() {
+        int length = getVarInt();
+        checkRemaining(length);
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Throw if the given count of bytes cannot be read.
+     */
+    private void checkRemaining(int count) {
+        if (limit - position < count) {
+            throw new IllegalArgumentException("The save file ends too early.");
+        }
+    }
+}
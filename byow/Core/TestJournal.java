@@ -0,0 +1,126 @@
+package byow.Core;
+
+import byow.TileEngine.HeadlessRenderer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of restoring a game by its checkpoint and journal.
+ */
+public class TestJournal {
+
+    /**
+     * The config of the finite worlds.
+     */
+    private static final WorldConfig CONFIG = new WorldConfig(300, 200);
+    /**
+     * The autosave interval that never comes, so the checkpoints are only saved by the command count.
+     */
+    private static final long NEVER = 3_600_000L;
+    /**
+     * The folder of the files of a test.
+     */
+    private File folder;
+    /**
+     * The games that are journaled by a test.
+     */
+    private Game[] games;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("byow").toFile();
+    }
+
+    @After
+    public void deleteFolder() {
+        if (games != null) {
+            for (Game game : games) {
+                game.stopJournal();
+            }
+        }
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    /**
+     * Journal the started game, make more commands than a checkpoint interval, and assert that the game is restored
+     * by the latest checkpoint and the commands of the journal after it, as if the game had crashed.
+     */
+    private void assertRestored(Game game, long seed) {
+        games = new Game[]{game};
+        File journalFile = new File(folder, "world.journal");
+        File checkpoint = new File(folder, "world.obj");
+        game.startJournal(journalFile, checkpoint, NEVER);
+        TestSaveLoad.move(game, seed + 1, Journal.CHECKPOINT_INTERVAL * 3 / 2);
+        /* Wait for the checkpoint on the background thread, the save goes to another file. */
+        game.saveToFile(new File(folder, "other.obj"));
+        long hash = game.contentHash();
+        long commandCount = game.getCommandCount();
+
+        Game restored = Game.restore(checkpoint, journalFile, new HeadlessRenderer());
+        assertEquals(hash, restored.contentHash());
+        assertEquals(commandCount, restored.getCommandCount());
+    }
+
+    @Test
+    public void testRestoreDelta() {
+        assertRestored(TestSaveLoad.play(new Game(21, CONFIG, new HeadlessRenderer()), 21, 300), 21);
+    }
+
+    @Test
+    public void testRestoreWorldGrid() {
+        File file = new File(folder, "grid.obj");
+        TestSaveLoad.play(new Game(28, CONFIG, new HeadlessRenderer()), 28, 300).saveToFile(file, false);
+        assertRestored(Game.readFromFile(file, new HeadlessRenderer()), 28);
+    }
+
+    @Test
+    public void testRestoreChunked() {
+        assertRestored(TestSaveLoad.play(Game.newChunkedGame(22, new HeadlessRenderer()), 22, 300), 22);
+    }
+
+    @Test
+    public void testRestoreMapped() {
+        Game game = Game.newMappedGame(23, CONFIG, new File(folder, "world.map"), new HeadlessRenderer());
+        assertRestored(TestSaveLoad.play(game, 23, 300), 23);
+    }
+
+    @Test
+    public void testRestoreFirstCheckpoint() {
+        Game game = new Game(24, CONFIG, new HeadlessRenderer());
+        games = new Game[]{game};
+        TestSaveLoad.play(game, 24, 300);
+        File journalFile = new File(folder, "world.journal");
+        File checkpoint = new File(folder, "world.obj");
+        game.startJournal(journalFile, checkpoint, NEVER);
+        TestSaveLoad.move(game, 25, 200);
+
+        Game restored = Game.restore(checkpoint, journalFile, new HeadlessRenderer());
+        TestSaveLoad.assertSameGame(game, restored);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRestoreOtherJournal() {
+        Game game1 = TestSaveLoad.play(new Game(26, CONFIG, new HeadlessRenderer()), 26, 100);
+        Game game2 = TestSaveLoad.play(new Game(27, CONFIG, new HeadlessRenderer()), 27, 100);
+        games = new Game[]{game1, game2};
+        File checkpoint = new File(folder, "world1.obj");
+        game1.startJournal(new File(folder, "world1.journal"), checkpoint, NEVER);
+        File journalFile = new File(folder, "world2.journal");
+        game2.startJournal(journalFile, new File(folder, "world2.obj"), NEVER);
+
+        Game.restore(checkpoint, journalFile, new HeadlessRenderer());
+    }
+}
@@ -0,0 +1,162 @@
+package byow.Core;
+
+import byow.TileEngine.HeadlessRenderer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of saving and loading a game of every kind of world.
+ */
+public class TestSaveLoad {
+
+    /**
+     * The config of the finite worlds, that is larger than a region of ParallelFrame.
+     */
+    private static final WorldConfig CONFIG = new WorldConfig(300, 200);
+    /**
+     * The folder of the save files of a test.
+     */
+    private File folder;
+
+    @Before
+    public void createFolder() throws IOException {
+        folder = Files.createTempDirectory("byow").toFile();
+    }
+
+    @After
+    public void deleteFolder() {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    /**
+     * Start the game and make the given count of random moves and vision switches, return the game.
+     */
+    static Game play(Game game, long seed, int count) {
+        game.newWorld();
+        game.interactiveGame();
+        move(game, seed, count);
+        return game;
+    }
+
+    /**
+     * Make the given count of random moves and vision switches.
+     */
+    static void move(Game game, long seed, int count) {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(50) == 0) {
+                game.switchVision();
+            } else {
+                game.move("wasd".charAt(random.nextInt(4)));
+            }
+        }
+    }
+
+    /**
+     * Return the game of the save file.
+     */
+    private static Game load(File file) {
+        return Game.readFromFile(file, new HeadlessRenderer());
+    }
+
+    /**
+     * Assert that the 2 games have the same world, player, vision scope and command count.
+     */
+    static void assertSameGame(Game expected, Game actual) {
+        assertEquals(expected.contentHash(), actual.contentHash());
+        assertEquals(expected.getCommandCount(), actual.getCommandCount());
+    }
+
+    @Test
+    public void testWorldGridRoundTrip() {
+        Game game = play(new Game(11, CONFIG, new HeadlessRenderer()), 11, 500);
+        File file = new File(folder, "grid.obj");
+        game.saveToFile(file, false);
+        Game loaded = load(file);
+        assertSameGame(game, loaded);
+
+        loaded.saveToFile(file);
+        assertSameGame(game, load(file));
+    }
+
+    @Test
+    public void testDeltaRoundTrip() {
+        Game game = play(new Game(12, CONFIG, new HeadlessRenderer()), 12, 500);
+        File file = new File(folder, "delta.obj");
+        game.saveToFile(file, true);
+        assertTrue(file.length() < 1000);
+        Game loaded = load(file);
+        assertSameGame(game, loaded);
+
+        move(game, 13, 200);
+        move(loaded, 13, 200);
+        assertSameGame(game, loaded);
+    }
+
+    @Test
+    public void testChunkedRoundTrip() {
+        Game game = play(Game.newChunkedGame(14, new HeadlessRenderer()), 14, 500);
+        File file = new File(folder, "chunked.obj");
+        game.saveToFile(file);
+        Game loaded = load(file);
+        assertSameGame(game, loaded);
+
+        move(game, 15, 200);
+        move(loaded, 15, 200);
+        assertSameGame(game, loaded);
+    }
+
+    @Test
+    public void testMappedRoundTrip() {
+        Game game = play(Game.newMappedGame(16, CONFIG, new File(folder, "world.map"), new HeadlessRenderer()),
+                16, 500);
+        Game grid = play(new Game(16, CONFIG, new HeadlessRenderer()), 16, 500);
+        assertSameGame(grid, game);
+
+        File file = new File(folder, "mapped.obj");
+        game.saveToFile(file);
+        assertSameGame(grid, load(file));
+    }
+
+    @Test
+    public void testMappedOlderSave() {
+        Game game = play(Game.newMappedGame(17, CONFIG, new File(folder, "world.map"), new HeadlessRenderer()),
+                17, 500);
+        File file = new File(folder, "mapped.obj");
+        game.saveToFile(file);
+        long hash = game.contentHash();
+        long commandCount = game.getCommandCount();
+        move(game, 18, 3000);
+
+        Game loaded = load(file);
+        assertEquals(hash, loaded.contentHash());
+        assertEquals(commandCount, loaded.getCommandCount());
+    }
+
+    @Test
+    public void testLegacyRoundTrip() {
+        Game game = load(new File("my_world.obj"));
+        WorldView view = game.getView();
+        assertEquals(80, view.getWidth());
+        assertEquals(30, view.getHeight());
+        assertTrue(view.hasPlayer());
+
+        File file = new File(folder, "legacy.obj");
+        game.saveToFile(file);
+        assertSameGame(game, load(file));
+    }
+}
@@ -0,0 +1,208 @@
+package byow.Core;
+
+/**
+ * This class tracks the tiles of the frame that the player can see, by the X and Y of the frame.
+ * The visible tiles are a square around a center, or all the tiles when the vision is not limited.
+ * When the square moves, only the tiles that enter or leave it are visited and marked dirty,
+ * so a move costs the size of the vision instead of the size of the frame.
+ * The dirty tiles are the tiles of the frame that should be filled and rendered again.
+ */
+public class Vision {
+
+    /**
+     * The count of tiles of a word of a bitset.
+     */
+    private static final int WORD_SIZE = 64;
+    /**
+     * The config of the frame.
+     */
+    private final WorldConfig config;
+    /**
+     * The bitset of the visible tiles.
+     */
+    private final long[] visible;
+    /**
+     * The bitset of the dirty tiles.
+     */
+    private final long[] dirty;
+    /**
+     * The indices of the dirty tiles in the order they were marked.
+     */
+    private final int[] dirtyTiles;
+    /**
+     * The count of dirty tiles.
+     */
+    private int dirtyCount;
+    /**
+     * True if all the tiles are dirty.
+     */
+    private boolean isAllDirty;
+    /**
+     * The bounds of the visible square, the square is empty if west is larger than east.
+     */
+    private int west;
+    private int south;
+    private int east;
+    private int north;
+
+    /**
+     * Create a vision of the frame that nothing is visible and all the tiles are dirty.
+     */
+    public Vision(WorldConfig config) {
+        int volume = config.getVolume();
+        this.config = config;
+        this.visible = new long[(volume + WORD_SIZE - 1) / WORD_SIZE];
+        this.dirty = new long[visible.length];
+        this.dirtyTiles = new int[volume];
+        this.dirtyCount = 0;
+        this.isAllDirty = true;
+        this.west = 0;
+        this.south = 0;
+        this.east = -1;
+        this.north = -1;
+    }
+
+    /**
+     * Make the square of the scope around the center visible.
+     */
+    public void setSquare(int centerX, int centerY, int scope) {
+        setBounds(centerX - scope, centerY - scope, centerX + scope, centerY + scope);
+    }
+
+    /**
+     * Make all the tiles visible.
+     */
+    public void setAll() {
+        setBounds(0, 0, config.getWidth() - 1, config.getHeight() - 1);
+    }
+
+    /**
+     * Move the visible square to the bounds, and mark the tiles that enter or leave the square dirty.
+     */
+    private void setBounds(int newWest, int newSouth, int newEast, int newNorth) {
+        newWest = Math.max(newWest, 0);
+        newSouth = Math.max(newSouth, 0);
+        newEast = Math.min(newEast, config.getWidth() - 1);
+        newNorth = Math.min(newNorth, config.getHeight() - 1);
+        for (int x = west; x <= east; x++) {
+            for (int y = south; y <= north; y++) {
+                if (x < newWest || x > newEast || y < newSouth || y > newNorth) {
+                    int i = config.xyToIPoint(x, y);
+                    clear(visible, i);
+                    markDirty(i);
+                }
+            }
+        }
+        for (int x = newWest; x <= newEast; x++) {
+            for (int y = newSouth; y <= newNorth; y++) {
+                int i = config.xyToIPoint(x, y);
+                if (!get(visible, i)) {
+                    set(visible, i);
+                    markDirty(i);
+                }
+            }
+        }
+        west = newWest;
+        south = newSouth;
+        east = newEast;
+        north = newNorth;
+    }
+
+    /**
+     * Return true if the tile is visible.
+     */
+    public boolean isVisible(int x, int y) {
+        return get(visible, config.xyToIPoint(x, y));
+    }
+
+    /**
+     * Mark the tile dirty, do nothing if it is out of the frame.
+     */
+    public void markDirty(int x, int y) {
+        if (config.checkBound(x, y)) {
+            markDirty(config.xyToIPoint(x, y));
+        }
+    }
+
+    /**
+     * Mark all the visible tiles dirty, e.g. when the frame moves over the world.
+     */
+    public void markVisibleDirty() {
+        for (int x = west; x <= east; x++) {
+            for (int y = south; y <= north; y++) {
+                markDirty(config.xyToIPoint(x, y));
+            }
+        }
+    }
+
+    /**
+     * Mark all the tiles dirty.
+     */
+    public void markAllDirty() {
+        isAllDirty = true;
+    }
+
+    /**
+     * Mark the tile of the index dirty once.
+     */
+    private void markDirty(int i) {
+        if (isAllDirty || get(dirty, i)) {
+            return;
+        }
+        set(dirty, i);
+        dirtyTiles[dirtyCount++] = i;
+    }
+
+    /**
+     * Return true if all the tiles are dirty.
+     */
+    public boolean isAllDirty() {
+        return isAllDirty;
+    }
+
+    /**
+     * Return the count of dirty tiles, it is meaningless when all the tiles are dirty.
+     */
+    public int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * Return the indices of the dirty tiles, only the first getDirtyCount ones are valid.
+     */
+    public int[] getDirtyTiles() {
+        return dirtyTiles;
+    }
+
+    /**
+     * Clear the dirty tiles after they were rendered.
+     */
+    public void clearDirty() {
+        for (int i = 0; i < dirtyCount; i++) {
+            clear(dirty, dirtyTiles[i]);
+        }
+        dirtyCount = 0;
+        isAllDirty = false;
+    }
+
+    /**
+     * Return the bit of the index.
+     */
+    private static boolean get(long[] bits, int i) {
+        return (bits[i / WORD_SIZE] & (1L << (i % WORD_SIZE))) != 0;
+    }
+
+    /**
+     * Set the bit of the index.
+     */
+    private static void set(long[] bits, int i) {
+        bits[i / WORD_SIZE] |= 1L << (i % WORD_SIZE);
+    }
+
+    /**
+     * Clear the bit of the index.
+     */
+    private static void clear(long[] bits, int i) {
+        bits[i / WORD_SIZE] &= ~(1L << (i % WORD_SIZE));
+    }
+}
@@ -1,319 +1,275 @@
 package byow.Core.World;
 
 import byow.Core.Point;
-import byow.Core.TileBrick;
-import byow.Core.Utils;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 
 /**
  * This class implement the A* algorithm for find the shortest path between 2 rooms.
+ * An instance is reused by all the hallways of a frame. The state of a tile is only valid
+ * when its stamp equals the generation of the current search, so nothing is cleared
+ * between searches and a search only costs the tiles it explored.
+ * A search only explores the tiles of a window of the world, that is all the world by default,
+ * and the state is kept by the index of a tile in the window, so it takes the memory of the window only.
  */
 public class AStar {
 
     /**
-     * The value of INF.
+     * The previous direction of a start gate.
      */
-    private final int INF = 99999;
+    private static final byte NO_PREV = -1;
     /**
-     * The start room.
+     * The grid of the frame.
      */
-    private final Room startRoom;
+    private final WorldGrid grid;
     /**
-     * The destination room.
+     * The config of the world.
      */
-    private final Room targetRoom;
+    private final WorldConfig config;
     /**
-     * An array of edges.
+     * The hallwayMap of the frame.
      */
-    private final Edge[] edges;
+    private final Map<Integer, Hallway> hallwayMap;
     /**
-     * The deque of vertices.
+     * The shifts of the iPoint to the neighbours by the sequence NSWE.
      */
-    private final PriorityQueue<Edge> deque;
-
+    private final int[] offsets;
     /**
-     * The array of tile bricks.
+     * The X and Y of the southwest corner of the window, and its width and height.
      */
-    private final TileBrick[] tileBricks;
-
+    private int windowX;
+    private int windowY;
+    private int windowWidth;
+    private int windowHeight;
     /**
-     * The start point.
+     * The distance that have gone through of every tile.
      */
-    private final int startPoint;
+    private final int[] distTo;
     /**
-     * The hallwayMap of the frame.
+     * The direction from the previous tile of every tile.
      */
-    private final Map<String, Hallway> hallwayMap;
-
+    private final byte[] prevDirections;
     /**
-     * This inner class respects a data structure of an Edge
+     * The generation of the search when a tile was reached.
      */
-    private class Edge implements Comparable<Edge> {
-
-        /**
-         * The index of the edge.
-         */
-        private final int index;
-        /**
-         * The distance that have gone through.
-         */
-        private int distTo;
-        /**
-         * The Manhattan distance to the target.
-         */
-        private int h;
-        /**
-         * The priority value of the edge.
-         */
-        private int priority;
-        /**
-         * The previous edge.
-         */
-        private Edge prev;
-
-        public Edge(int index, int h) {
-            this(index, INF, h, null);
-        }
-
-        public Edge(int index, int distTo, int h, Edge prev) {
-            this.index = index;
-            this.distTo = distTo;
-            this.h = h;
-            this.priority = this.distTo + this.h;
-            this.prev = prev;
-        }
-
-        @Override
-        public int compareTo(Edge e) {
-            return this.priority - e.priority;
-        }
-
-        @Override
-        public String toString() {
-            return "Edge: " + this.index + ", distTo: " + this.distTo
-                    + ", h: " + this.h + ", priority: " + this.priority;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (o == null || o.getClass() != Edge.class) {
-                return false;
-            }
-            Edge e = (Edge) o;
-            return this.index == e.index;
-        }
-
-        @Override
-        public int hashCode() {
-            return this.index;
-        }
-    }
-
-    public AStar(Room room1, Room room2, TileBrick[] tileBricks, Map<String, Hallway> hallwayMap) {
-        this.startRoom = room1;
-        this.targetRoom = room2;
-        this.hallwayMap = hallwayMap;
-        this.startPoint = this.startRoom.getCentralPoint().getIPoint();
-        this.tileBricks = tileBricks;
-        int volume = Frame.VOLUME;
-        this.edges = new Edge[volume];
-        this.deque = new PriorityQueue<>();
-        for (int i = 0; i < volume; i++) {
-            Point p = new Point(i);
-            this.edges[i] = new Edge(i, Utils.getDistance(p, targetRoom));
-        }
-    }
-
+    private final int[] stamps;
     /**
-     * Return the shortest path from start point to target room.
+     * The tiles to visit ordered by distTo + the Manhattan distance to the target.
      */
-    public List<Point> runAPlus() {
-        Edge startEdge = edges[startPoint];
-        setEdgePriority(startEdge, 0, 0);
-        List<Integer> vertices = startRoom.getPossibleGates();
-        for (int intV : vertices) {
-            Edge v = this.edges[intV];
-            setEdgePrev(v, startEdge);
-            deque.add(v);
-        }
-        while (!deque.isEmpty()) {
-            Edge p = deque.poll();
-            setEdgeDist(p, getEdgeDistTo(p.prev) + 1);
-            Edge targetGate = getTargetGate(p);
-            if (targetGate != null) {
-                return getEdgePath(targetGate);
-            }
-            relax(p);
-        }
-        System.out.println("AStar.class: Cannot find a path between 2 rooms: "
-                + startRoom.getCentralPoint() + " and " + targetRoom.getCentralPoint());
-        return null;
-    }
+    private final IndexMinHeap heap;
+    /**
+     * The generation of the current search.
+     */
+    private int generation;
+    /**
+     * The start room of the current search.
+     */
+    private Room startRoom;
+    /**
+     * The destination room of the current search.
+     */
+    private Room targetRoom;
 
     /**
-     * Relax the edge p.
+     * Create a search of all the world.
      */
-    private void relax(Edge p) {
-        List<Integer> intQs = getVertices(p);
-        int dist = getEdgeDistTo(p) + 1;
-        for (int intQ : intQs) {
-            Edge q = this.edges[intQ];
-            if (updateEdgeDist(q, dist)) {
-                deque.remove(q);
-                setEdgePrev(q, p);
-                deque.add(q);
-            }
-        }
+    public AStar(WorldGrid grid, Map<Integer, Hallway> hallwayMap) {
+        int volume = grid.getVolume();
+        this.grid = grid;
+        this.config = grid.getConfig();
+        this.hallwayMap = hallwayMap;
+        this.offsets = config.getNeighbourOffsets();
+        this.distTo = new int[volume];
+        this.prevDirections = new byte[volume];
+        this.stamps = new int[volume];
+        this.heap = new IndexMinHeap(volume);
+        this.generation = 0;
+        setWindow(0, 0, config.getWidth(), config.getHeight());
     }
 
     /**
-     * Return the possible vertices of this edge.
+     * Limit the next searches to the window of the given southwest corner, width and height.
      */
-    private List<Integer> getVertices(Edge edge) {
-        Point[] neighbours = Point.getNeighbours(new Point(getEdgeIndex(edge)));
-        ArrayList<Integer> vertices = new ArrayList<>();
-        for (Point neighbour : neighbours) {
-            int intNeighbour = neighbour.getIPoint();
-            if (tileBricks[intNeighbour].getConstructionType() == TileBrick.CONSTRUCTION_TYPE_NOTHING) {
-                vertices.add(intNeighbour);
-            }
+    public void setWindow(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0
+                || !config.checkBound(x, y) || !config.checkBound(x + width - 1, y + height - 1)) {
+            throw new IllegalArgumentException("The window is out of the world.");
         }
-        return vertices;
+        this.windowX = x;
+        this.windowY = y;
+        this.windowWidth = width;
+        this.windowHeight = height;
     }
 
     /**
-     * Return connected point when 2 room can be connected. Otherwise, return null.
+     * Return the shortest path from a gate of the start room to the target room,
+     * the first point is the gate of the start room and the last one is the gate of the target.
      */
-    private Edge getTargetGate(Edge edge) {
-        Point[] neighbours = Point.getNeighbours(new Point(getEdgeIndex(edge)));
-        for (Point neighbour : neighbours) {
-            if (isWallOrGate(neighbour)) {
-                boolean isHallwayToTargetRoom = isHallwayToTargetRoom(neighbour);
-                if (isHallwayToTargetRoom) {
-                    hallwayMap.get(tileBricks[neighbour.getIPoint()].getKey()).addConnectedRoom(startRoom);
-                }
-                if (isTargetRoomButNotCorner(neighbour) || isHallwayToTargetRoom) {
-                    Edge target = this.edges[neighbour.getIPoint()];
-                    setEdgePrev(target, edge);
-                    return target;
+    public List<Point> runAPlus(Room start, Room target) {
+        this.startRoom = start;
+        this.targetRoom = target;
+        nextGeneration();
+        for (Point wall : startRoom.getWalls()) {
+            if (!startRoom.isCorner(wall.getX(), wall.getY())) {
+                reach(wall.getIPoint(), 1, NO_PREV);
+            }
+        }
+        try {
+            while (!heap.isEmpty()) {
+                int p = toIPoint(heap.poll());
+                int targetGate = getTargetGate(p);
+                if (targetGate >= 0) {
+                    return getPath(p, targetGate);
                 }
+                relax(p);
             }
+        } finally {
+            heap.clear();
         }
+        System.out.println("AStar.class: Cannot find a path between 2 rooms: "
+                + startRoom.getCentralPoint() + " and " + targetRoom.getCentralPoint());
         return null;
     }
 
     /**
-     * Return true if the point is a wall of a gate.
-     */
-    private boolean isWallOrGate(Point point) {
-        TileBrick tileBrick = tileBricks[point.getIPoint()];
-        return tileBrick.getType() == Construction.WALLS || tileBrick.getType() == Construction.GATES;
-    }
-
-    /**
-     * Return true if the brick and the point is belonged to the target room.
+     * Start a new search, reset the stamps only when the generation overflows.
      */
-    private boolean isTargetRoomButNotCorner(Point point) {
-        TileBrick tileBrick = tileBricks[point.getIPoint()];
-        return tileBrick.getKey().equals(targetRoom.getKey()) && !targetRoom.isCorner(point);
+    private void nextGeneration() {
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 0;
+        }
+        generation++;
     }
 
     /**
-     * Return true if the brick is a hallway to the target room.
+     * Return the index in the window of the tile at iPoint, or -1 if it is out of the window.
      */
-    private boolean isHallwayToTargetRoom(Point point) {
-        TileBrick tileBrick = tileBricks[point.getIPoint()];
-        return tileBrick.getConstructionType() == TileBrick.CONSTRUCTION_TYPE_HALLWAY
-                && hallwayMap.get(tileBrick.getKey()).containsRoom(targetRoom);
+    private int toIndex(int iPoint) {
+        int x = config.iPointToX(iPoint) - windowX;
+        int y = config.iPointToY(iPoint) - windowY;
+        if (x < 0 || x >= windowWidth || y < 0 || y >= windowHeight) {
+            return -1;
+        }
+        return x * windowHeight + y;
     }
 
     /**
-     * Return the index of an Edge.
+     * Return the iPoint of the tile at the index in the window.
      */
-    public int getEdgeIndex(Edge edge) {
-        return edge.index;
+    private int toIPoint(int index) {
+        return config.xyToIPoint(windowX + index / windowHeight, windowY + index % windowHeight);
     }
 
-    /* ----------- Below are the methods of the Edge. ------------------ */
-
     /**
-     * Return the distTo of an Edge.
+     * Reach a tile by the distance and the direction from the previous tile, if it is shorter.
+     * A tile out of the window is never reached.
      */
-    public int getEdgeDistTo(Edge edge) {
-        return edge.distTo;
+    private void reach(int iPoint, int dist, byte direction) {
+        int index = toIndex(iPoint);
+        if (index < 0 || stamps[index] == generation && distTo[index] <= dist) {
+            return;
+        }
+        stamps[index] = generation;
+        distTo[index] = dist;
+        prevDirections[index] = direction;
+        heap.insertOrDecrease(index, dist + getH(iPoint));
     }
 
     /**
-     * Return the List of a path.
+     * Relax the empty neighbours of the tile p.
      */
-    public List<Point> getEdgePath(Edge edge) {
-        List<Integer> edgeList = new ArrayList<>();
-        getEdgePath(edge, edgeList);
-        if (edgeList.isEmpty()) {
-            return null;
-        }
-        int size = edgeList.size();
-        ArrayList<Point> points = new ArrayList<>();
-        for (int i = size - 2; i >= 0; i--) { // Use - 2 for avoiding the central point of startRoom.
-            points.add(new Point(edgeList.get(i)));
+    private void relax(int p) {
+        int dist = distTo[toIndex(p)] + 1;
+        int mask = config.getBorderMask(p);
+        for (int direction = Point.NORTH; direction < Point.DIRECTION_INIT; direction++) {
+            int q = p + offsets[direction];
+            if ((mask & (1 << direction)) != 0 && grid.isEmpty(q)) {
+                reach(q, dist, (byte) direction);
+            }
         }
-        return points;
     }
 
     /**
-     * A helper method of getPath to do the recursive call.
+     * Return the gate next to the tile p when 2 room can be connected. Otherwise, return -1.
      */
-    private void getEdgePath(Edge edge, List<Integer> list) {
-        if (edge == null) {
-            return;
+    private int getTargetGate(int p) {
+        int mask = config.getBorderMask(p);
+        for (int direction = Point.NORTH; direction < Point.DIRECTION_INIT; direction++) {
+            int q = p + offsets[direction];
+            if ((mask & (1 << direction)) == 0 || !isWallOrGate(q)) {
+                continue;
+            }
+            boolean isHallwayToTargetRoom = isHallwayToTargetRoom(q);
+            if (isHallwayToTargetRoom) {
+                hallwayMap.get(grid.getConstructionId(q)).addConnectedRoom(startRoom);
+            }
+            if (isTargetRoomButNotCorner(q) || isHallwayToTargetRoom) {
+                return q;
+            }
         }
-        list.add(edge.index);
-        getEdgePath(edge.prev, list);
+        return -1;
     }
 
     /**
-     * Set the distTo of an edge.
+     * Return the Manhattan distance from the tile to the center of the target room.
      */
-    public void setEdgeDist(Edge edge, int value) {
-        edge.distTo = value;
-        updateEdgePriority(edge);
+    private int getH(int iPoint) {
+        Point central = targetRoom.getCentralPoint();
+        return Math.abs(config.iPointToX(iPoint) - central.getX())
+                + Math.abs(config.iPointToY(iPoint) - central.getY());
     }
 
     /**
-     * Set the prev an edge.
+     * Return true if the tile is a wall of a gate.
      */
-    private void setEdgePrev(Edge edge, Edge prev) {
-        edge.prev = prev;
+    private boolean isWallOrGate(int iPoint) {
+        int type = grid.getType(iPoint);
+        return type == Construction.WALLS || type == Construction.GATES;
     }
 
     /**
-     * Try to update the distTo of an edge.
+     * Return true if the tile is belonged to the target room.
      */
-    public boolean updateEdgeDist(Edge edge, int value) {
-        if (value < edge.distTo) {
-            setEdgeDist(edge, value);
-            return true;
-        }
-        return false;
+    private boolean isTargetRoomButNotCorner(int iPoint) {
+        return grid.getConstructionId(iPoint) == targetRoom.getId()
+                && !targetRoom.isCorner(config.iPointToX(iPoint), config.iPointToY(iPoint));
     }
 
     /**
-     * Update the priority of an edge.
+     * Return true if the tile is a hallway to the target room.
+     * A hallway that is not in the hallwayMap, e.g. a hallway inside a region, is never to the target room.
      */
-    public void updateEdgePriority(Edge edge) {
-        edge.priority = edge.distTo + edge.h;
+    private boolean isHallwayToTargetRoom(int iPoint) {
+        if (grid.getConstructionType(iPoint) != WorldGrid.CONSTRUCTION_TYPE_HALLWAY) {
+            return false;
+        }
+        Hallway hallway = hallwayMap.get(grid.getConstructionId(iPoint));
+        return hallway != null && hallway.containsRoom(targetRoom);
     }
 
     /**
-     * Set the priority of an edge by given distTo and h.
+     * Return the path from the start gate to the target gate by following the previous directions.
      */
-    public void setEdgePriority(Edge edge, int distTo, int h) {
-        edge.distTo = distTo;
-        edge.h = h;
-        updateEdgePriority(edge);
+    private List<Point> getPath(int last, int targetGate) {
+        List<Point> points = new ArrayList<>();
+        points.add(new Point(targetGate, config));
+        int iPoint = last;
+        while (true) {
+            points.add(new Point(iPoint, config));
+            byte direction = prevDirections[toIndex(iPoint)];
+            if (direction == NO_PREV) {
+                break;
+            }
+            iPoint = config.getNeighbour(iPoint, Point.getOpposite(direction));
+        }
+        Collections.reverse(points);
+        return points;
     }
 }
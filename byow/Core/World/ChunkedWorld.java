@@ -0,0 +1,331 @@
+package byow.Core.World;
+
+import byow.Core.Point;
+import byow.Core.SaveBuffer;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
+import byow.Core.WorldMap;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class represents an infinite world that is split into square chunks.
+ * Every chunk is a small frame that is generated on demand from (seed, chunkX, chunkY),
+ * so the same chunk is always the same. Only the recently used chunks stay in memory,
+ * the tiles that were changed by the player are kept aside and applied again when
+ * an evicted chunk is generated again.
+ *
+ * Every border between 2 chunks has a portal, that is a 3 x 3 room on each side with a gate
+ * on the border. Both chunks compute the same position of the portal from the seed, so the
+ * 2 gates meet and the hallways of the 2 chunks are stitched by the portal rooms.
+ */
+public class ChunkedWorld implements WorldMap, Serializable {
+
+    private static final long serialVersionUID = -7866290333301420856L;
+    /**
+     * The default side length of a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+    /**
+     * The default count of chunks that stay in memory.
+     */
+    public static final int DEFAULT_RESIDENT_CHUNKS = 64;
+    /**
+     * The min side length of a chunk, so the 4 portals never overlap.
+     */
+    private static final int MIN_CHUNK_SIZE = 16;
+    /**
+     * The side length of a portal room.
+     */
+    private static final int PORTAL_SIZE = 3;
+    /**
+     * The kinds of the hashes of a chunk.
+     */
+    private static final int VERTICAL_BORDER = 0;
+    private static final int HORIZONTAL_BORDER = 1;
+    private static final int CHUNK_SEED = 2;
+
+    /**
+     * The seed of the world.
+     */
+    private final long seed;
+    /**
+     * The side length of a chunk.
+     */
+    private final int chunkSize;
+    /**
+     * The max count of chunks that stay in memory.
+     */
+    private final int residentChunks;
+    /**
+     * The config of every chunk.
+     */
+    private final WorldConfig chunkConfig;
+    /**
+     * The changed types of tiles by the key of their chunk and their index in the chunk.
+     */
+    private final HashMap<Long, HashMap<Integer, Byte>> changes;
+    /**
+     * The chunks in memory by the key of chunk, in the order of access.
+     */
+    private transient LinkedHashMap<Long, WorldGrid> chunks;
+
+    /**
+     * Create a world with the default chunk size and count of resident chunks.
+     */
+    public ChunkedWorld(long seed) {
+        this(seed, DEFAULT_CHUNK_SIZE, DEFAULT_RESIDENT_CHUNKS);
+    }
+
+    /**
+     * Create a world by the given seed, side length of a chunk and count of resident chunks.
+     */
+    public ChunkedWorld(long seed, int chunkSize, int residentChunks) {
+        if (chunkSize < MIN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("The chunk size must be at least " + MIN_CHUNK_SIZE + ".");
+        }
+        if (residentChunks < 1) {
+            throw new IllegalArgumentException("At least 1 chunk must stay in memory.");
+        }
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.residentChunks = residentChunks;
+        this.chunkConfig = new WorldConfig(chunkSize, chunkSize);
+        this.changes = new HashMap<>();
+    }
+
+    /**
+     * Return a snapshot of the world, that has a copy of the changes and no chunk in memory,
+     * so it is not changed by the later changes of this world.
+     */
+    public ChunkedWorld snapshot() {
+        ChunkedWorld world = new ChunkedWorld(seed, chunkSize, residentChunks);
+        for (Map.Entry<Long, HashMap<Integer, Byte>> chunk : changes.entrySet()) {
+            world.changes.put(chunk.getKey(), new HashMap<>(chunk.getValue()));
+        }
+        return world;
+    }
+
+    /**
+     * Return the hash of the seed, the chunk size and the changes, since the chunks are generated from them.
+     * The changes are added in any order, so the hash does not depend on the order of the maps.
+     */
+    @Override
+    public long contentHash() {
+        long hash = WorldGrid.hashStep(WorldGrid.hashStep(WorldGrid.HASH_BASIS, seed), chunkSize);
+        long sum = 0;
+        for (Map.Entry<Long, HashMap<Integer, Byte>> chunk : changes.entrySet()) {
+            long chunkHash = mix(chunk.getKey());
+            for (Map.Entry<Integer, Byte> change : chunk.getValue().entrySet()) {
+                sum += mix(chunkHash ^ ((long) change.getKey() << 8 | change.getValue() & 0xFF));
+            }
+        }
+        return WorldGrid.hashStep(hash, sum);
+    }
+
+    /**
+     * Return the side length of a chunk.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Return the count of chunks in memory.
+     */
+    public int getResidentChunks() {
+        return getChunks().size();
+    }
+
+    /**
+     * Write the world to the buffer, that is the seed, the size of chunks, the count of resident chunks,
+     * and the changed tiles of every chunk by the key of the chunk, their index and type.
+     * The chunks themselves are generated again from the seed.
+     */
+    public void writeTo(SaveBuffer buffer) {
+        buffer.putLong(seed);
+        buffer.putVarInt(chunkSize);
+        buffer.putVarInt(residentChunks);
+        buffer.putVarInt(changes.size());
+        for (Map.Entry<Long, HashMap<Integer, Byte>> chunk : changes.entrySet()) {
+            buffer.putLong(chunk.getKey());
+            buffer.putVarInt(chunk.getValue().size());
+            for (Map.Entry<Integer, Byte> change : chunk.getValue().entrySet()) {
+                buffer.putVarInt(change.getKey());
+                buffer.putByte(change.getValue());
+            }
+        }
+    }
+
+    /**
+     * Return a world that was written to the buffer by writeTo.
+     */
+    public static ChunkedWorld readFrom(SaveBuffer buffer) {
+        ChunkedWorld world = new ChunkedWorld(buffer.getLong(), buffer.getVarInt(), buffer.getVarInt());
+        int chunkCount = buffer.getVarInt();
+        for (int i = 0; i < chunkCount; i++) {
+            long key = buffer.getLong();
+            int changeCount = buffer.getVarInt();
+            HashMap<Integer, Byte> changed = new HashMap<>();
+            for (int j = 0; j < changeCount; j++) {
+                int iPoint = buffer.getVarInt();
+                if (iPoint >= world.chunkConfig.getVolume()) {
+                    throw new IllegalArgumentException("The save file has a broken change at " + iPoint + ".");
+                }
+                changed.put(iPoint, buffer.getByte());
+            }
+            world.changes.put(key, changed);
+        }
+        return world;
+    }
+
+    @Override
+    public boolean checkBound(int x, int y) {
+        return true;
+    }
+
+    @Override
+    public int getType(int x, int y) {
+        return getChunkOf(x, y).getType(toLocal(x), toLocal(y));
+    }
+
+    @Override
+    public int getConstructionType(int x, int y) {
+        return getChunkOf(x, y).getConstructionType(toLocal(x), toLocal(y));
+    }
+
+    @Override
+    public void setType(int x, int y, int type) {
+        int iPoint = chunkConfig.xyToIPoint(toLocal(x), toLocal(y));
+        getChunkOf(x, y).setType(iPoint, type);
+        long key = toKey(Math.floorDiv(x, chunkSize), Math.floorDiv(y, chunkSize));
+        changes.computeIfAbsent(key, k -> new HashMap<>()).put(iPoint, (byte) type);
+    }
+
+    /**
+     * Return the X and Y of a brick near the origin to place the player.
+     */
+    public int[] findSpawn(Random rand) {
+        WorldGrid grid = getChunk(0, 0);
+        int iPoint = grid.findBrick(rand.nextInt(chunkConfig.getVolume()));
+        if (iPoint < 0) {
+            throw new IllegalStateException("There is no brick in the chunk at the origin.");
+        }
+        return new int[]{chunkConfig.iPointToX(iPoint), chunkConfig.iPointToY(iPoint)};
+    }
+
+    /**
+     * Return the chunk that contains the X and Y.
+     */
+    private WorldGrid getChunkOf(int x, int y) {
+        return getChunk(Math.floorDiv(x, chunkSize), Math.floorDiv(y, chunkSize));
+    }
+
+    /**
+     * Return the chunk by its X and Y, generate it if it is not in memory.
+     */
+    public WorldGrid getChunk(int chunkX, int chunkY) {
+        long key = toKey(chunkX, chunkY);
+        WorldGrid grid = getChunks().get(key);
+        if (grid == null) {
+            grid = generateChunk(chunkX, chunkY);
+            getChunks().put(key, grid);
+        }
+        return grid;
+    }
+
+    /**
+     * Return the chunks in memory, create the cache after the world was read from disk.
+     */
+    private LinkedHashMap<Long, WorldGrid> getChunks() {
+        if (chunks == null) {
+            chunks = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, WorldGrid> eldest) {
+                    return size() > residentChunks;
+                }
+            };
+        }
+        return chunks;
+    }
+
+    /**
+     * Generate a chunk by the seed and its X and Y, then apply the changes of it.
+     */
+    private WorldGrid generateChunk(int chunkX, int chunkY) {
+        WorldGrid grid = new WorldGrid(chunkConfig);
+        Frame frame = new Frame(new Random(hash(chunkX, chunkY, CHUNK_SEED)), grid);
+        int last = chunkSize - 1;
+        int corner = chunkSize - PORTAL_SIZE;
+        addPortal(frame, grid, corner, getPortal(chunkX, chunkY, VERTICAL_BORDER) - 1,
+                last, getPortal(chunkX, chunkY, VERTICAL_BORDER));
+        addPortal(frame, grid, 0, getPortal(chunkX - 1, chunkY, VERTICAL_BORDER) - 1,
+                0, getPortal(chunkX - 1, chunkY, VERTICAL_BORDER));
+        addPortal(frame, grid, getPortal(chunkX, chunkY, HORIZONTAL_BORDER) - 1, corner,
+                getPortal(chunkX, chunkY, HORIZONTAL_BORDER), last);
+        addPortal(frame, grid, getPortal(chunkX, chunkY - 1, HORIZONTAL_BORDER) - 1, 0,
+                getPortal(chunkX, chunkY - 1, HORIZONTAL_BORDER), 0);
+        frame.create();
+        Map<Integer, Byte> changed = changes.get(toKey(chunkX, chunkY));
+        if (changed != null) {
+            for (Map.Entry<Integer, Byte> entry : changed.entrySet()) {
+                grid.setType(entry.getKey(), entry.getValue());
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Add a portal room by its southwest corner, and set the gate on the border.
+     */
+    private void addPortal(Frame frame, WorldGrid grid, int swX, int swY, int gateX, int gateY) {
+        Room portal = new Room(new Point(swX, swY, chunkConfig), PORTAL_SIZE, PORTAL_SIZE, grid);
+        if (!frame.addRoom(portal)) {
+            throw new IllegalStateException("The portals of a chunk overlap.");
+        }
+        portal.setGate(new Point(gateX, gateY, chunkConfig));
+    }
+
+    /**
+     * Return the position of the portal on the east (vertical) or north (horizontal) border
+     * of a chunk. The position is kept away from the corners of the chunk.
+     */
+    private int getPortal(int chunkX, int chunkY, int kind) {
+        final int margin = PORTAL_SIZE + 1;
+        return margin + (int) Math.floorMod(hash(chunkX, chunkY, kind), (long) (chunkSize - 2 * margin));
+    }
+
+    /**
+     * Return a hash of the seed, the X and Y of a chunk and the kind of the hash.
+     */
+    private long hash(int chunkX, int chunkY, int kind) {
+        return mix(seed ^ mix(toKey(chunkX, chunkY) * 31 + kind));
+    }
+
+    /**
+     * Return the mixed bits of a long, that is the finalizer of SplitMix64.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Return the X or Y in its chunk.
+     */
+    private int toLocal(int xy) {
+        return Math.floorMod(xy, chunkSize);
+    }
+
+    /**
+     * Return the key of a chunk by its X and Y.
+     */
+    private static long toKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+    }
+}
@@ -1,8 +1,7 @@
 package byow.Core.World;
 
 import byow.Core.Point;
-import byow.Core.TileBrick;
-import byow.Core.Utils;
+import byow.Core.WorldGrid;
 import byow.TileEngine.TETile;
 import byow.TileEngine.Tileset;
 
@@ -23,9 +22,9 @@ public abstract class Construction {
     public static final TETile GATE_TILE = Tileset.LOCKED_DOOR;
     public static final TETile UNLOCKED_GATE_TILE = Tileset.UNLOCKED_DOOR;
     /**
-     * The name of the construction.
+     * The id of the construction.
      */
-    protected final String key;
+    protected final int id;
     /**
      * The points of walls.
      */
@@ -41,22 +40,29 @@ public abstract class Construction {
     /**
      * The properties of the frame.
      */
-    protected TileBrick[] tileBricks;
+    protected WorldGrid grid;
     protected Point central;
 
-    protected Construction(TileBrick[] tileBricks) {
-        this.tileBricks = tileBricks;
-        this.key = Utils.getRandomUUID();
+    protected Construction(WorldGrid grid) {
+        this(grid, grid.newConstructionId());
+    }
+
+    /**
+     * Create a construction with an id that was given by the grid before.
+     */
+    protected Construction(WorldGrid grid, int id) {
+        this.grid = grid;
+        this.id = id;
         this.bricks = new ArrayList<>();
         this.walls = new ArrayList<>();
         this.gates = new ArrayList<>();
     }
 
     /**
-     * Return the key of a room.
+     * Return the id of a construction.
      */
-    public String getKey() {
-        return this.key;
+    public int getId() {
+        return this.id;
     }
 
     /**
@@ -74,16 +80,24 @@ public abstract class Construction {
     }
 
     /**
-     * Insert the construction to the tileBricks.
+     * Drop the grid after the construction is inserted, so a construction that is kept longer than
+     * its grid does not keep the grid, e.g. a hallway between the regions of ParallelFrame.
+     */
+    void dropGrid() {
+        grid = null;
+    }
+
+    /**
+     * Insert the construction to the grid.
      */
     protected void insertToFrameFields () {
         int constructionType = this.getClass() == Room.class ?
-                TileBrick.CONSTRUCTION_TYPE_ROOM : TileBrick.CONSTRUCTION_TYPE_HALLWAY;
+                WorldGrid.CONSTRUCTION_TYPE_ROOM : WorldGrid.CONSTRUCTION_TYPE_HALLWAY;
         for (Point brick : bricks) {
-            tileBricks[brick.getIPoint()].setValue(Construction.BRICKS, constructionType, getKey());
+            grid.setValue(brick.getIPoint(), Construction.BRICKS, constructionType, getId());
         }
         for (Point wall : walls) {
-            tileBricks[wall.getIPoint()].setValue(Construction.WALLS, constructionType, getKey());
+            grid.setValue(wall.getIPoint(), Construction.WALLS, constructionType, getId());
         }
     }
 }
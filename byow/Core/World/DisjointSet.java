@@ -0,0 +1,80 @@
+package byow.Core.World;
+
+/**
+ * This class is a DisjointSet of the elements in [0, count).
+ * A find halves the path to the root on the way, and a connect puts the smaller tree under the larger one,
+ * so a tree never gets deeper than log(count), and a find never needs the call stack.
+ */
+public class DisjointSet {
+
+    /**
+     * The parent of every element, a root is the parent of itself.
+     */
+    private final int[] parents;
+    /**
+     * The count of elements of the tree of every root.
+     */
+    private final int[] sizes;
+    /**
+     * The count of sets.
+     */
+    private int count;
+
+    /**
+     * Build a DJS that every element is a set of its own.
+     */
+    public DisjointSet(int count) {
+        this.parents = new int[count];
+        this.sizes = new int[count];
+        this.count = count;
+        for (int i = 0; i < count; i++) {
+            parents[i] = i;
+            sizes[i] = 1;
+        }
+    }
+
+    /**
+     * Return the root of the element, and point every element on the way to its grandparent.
+     */
+    public int find(int element) {
+        while (parents[element] != element) {
+            parents[element] = parents[parents[element]];
+            element = parents[element];
+        }
+        return element;
+    }
+
+    /**
+     * Return true if the 2 elements have the same root.
+     */
+    public boolean isConnected(int element1, int element2) {
+        return find(element1) == find(element2);
+    }
+
+    /**
+     * Connect the 2 elements, return false if they were connected.
+     */
+    public boolean connect(int element1, int element2) {
+        int root1 = find(element1);
+        int root2 = find(element2);
+        if (root1 == root2) {
+            return false;
+        }
+        if (sizes[root1] < sizes[root2]) {
+            int root = root1;
+            root1 = root2;
+            root2 = root;
+        }
+        parents[root2] = root1;
+        sizes[root1] += sizes[root2];
+        count--;
+        return true;
+    }
+
+    /**
+     * Return the count of sets.
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -1,8 +1,7 @@
 package byow.Core.World;
 
-import byow.Core.Engine;
-import byow.Core.Point;
-import byow.Core.TileBrick;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,9 +14,14 @@ import java.util.TreeMap;
 public class Frame {
 
     /**
-     * Save the tileBrick of every tile.
+     * The version of the generation, it must be increased when the same seed generates another world,
+     * so the saves that generate the world again from the seed are not read by a wrong version.
      */
-    private final TileBrick[] tileBricks;
+    public static final int GENERATOR_VERSION = 1;
+    /**
+     * Save the properties of every tile.
+     */
+    private final WorldGrid grid;
     /**
      * The rooms in the frame.
      */
@@ -25,15 +29,15 @@ public class Frame {
     /**
      * The hallways in the frame.
      */
-    private final TreeMap<String, Hallway> hallways;
+    private final TreeMap<Integer, Hallway> hallways;
     /**
-     * The random.
+     * The tiles that are taken by the rooms.
      */
-    private final Random rand;
+    private final OccupancyIndex occupancy;
     /**
-     * The volume of the DJS.
+     * The random.
      */
-    public static final int VOLUME = Engine.WIDTH * Point.WIDTH_FACTOR + Engine.HEIGHT;
+    private final Random rand;
     /**
      * The max rooms density.
      */
@@ -42,15 +46,24 @@ public class Frame {
      * The max rooms density.
      */
     private static final double MAX_ROOM_DENSITY = 0.02;
+    /**
+     * The max count of tries to place a room.
+     */
+    private static final int MAX_TRY = 20;
+    /**
+     * The min width and height of a frame, so a room of any size fits and there is at least one room.
+     */
+    public static final int MIN_SIDE_LENGTH = 10;
 
     /**
      * Create an empty frame.
      */
-    public Frame(Random rand, TileBrick[] tileBricks) {
+    public Frame(Random rand, WorldGrid grid) {
         this.rooms = new ArrayList<>();
         this.hallways = new TreeMap<>();
         this.rand = rand;
-        this.tileBricks = tileBricks;
+        this.grid = grid;
+        this.occupancy = new OccupancyIndex(grid.getConfig());
     }
 
     /**
@@ -61,11 +74,18 @@ public class Frame {
         generateHallways();
     }
 
+    /**
+     * Return the rooms of the frame.
+     */
+    public List<Room> getRooms() {
+        return this.rooms;
+    }
+
     /**
      * Generate new rooms.
      */
     public void generateRooms() {
-        int nRooms = getRoomCounts(this.rand);
+        int nRooms = getRoomCounts(this.rand, this.grid.getConfig());
         generateRooms(nRooms);
     }
 
@@ -73,12 +93,11 @@ public class Frame {
      * Generate new rooms with given room numbers.
      */
     public void generateRooms(int nRooms) {
-        final int maxTry = 20;
         for (int i = 0; i < nRooms; i++) {
             int j = 0;
-            while (j < maxTry) {
-                Room newRoom = new Room(this.rand, this.tileBricks);
-                if (newRoom.generateNewRoom()) {
+            while (j < MAX_TRY) {
+                Room newRoom = new Room(this.rand, this.grid);
+                if (newRoom.generateNewRoom(this.occupancy)) {
                     this.rooms.add(newRoom);
                     break;
                 }
@@ -88,23 +107,61 @@ public class Frame {
     }
 
     /**
-     * Return how many rooms in this frame by a give random generator.
+     * Add a room that was placed by the caller, return false if it conflicts with other rooms.
+     */
+    public boolean addRoom(Room room) {
+        if (!room.generateNewRoom(this.occupancy)) {
+            return false;
+        }
+        this.rooms.add(room);
+        return true;
+    }
+
+    /**
+     * Throw if the world of the config is too small to be filled by the rooms.
+     */
+    public static void checkSize(WorldConfig config) {
+        if (config.getWidth() < MIN_SIDE_LENGTH || config.getHeight() < MIN_SIDE_LENGTH) {
+            throw new IllegalArgumentException("The world must be at least " + MIN_SIDE_LENGTH + " x "
+                    + MIN_SIDE_LENGTH + " to have rooms: " + config);
+        }
+    }
+
+    /**
+     * Return how many rooms in this frame by a give random generator and the config of the world.
      */
-    public static int getRoomCounts(Random rand) {
-        int roomsLimit = (int) Math.round(Engine.HEIGHT * Engine.WIDTH * MAX_ROOM_DENSITY);
-        int minRooms = (int) Math.round(Engine.HEIGHT * Engine.WIDTH * MIN_ROOM_DENSITY);
+    public static int getRoomCounts(Random rand, WorldConfig config) {
+        int roomsLimit = (int) Math.round(config.getVolume() * MAX_ROOM_DENSITY);
+        int minRooms = (int) Math.round(config.getVolume() * MIN_ROOM_DENSITY);
         return rand.nextInt(roomsLimit - minRooms) + minRooms;
     }
 
     /**
-     * Generate new hallways by MST.
+     * Return the max count of construction ids that a frame of the config can take,
+     * every try of a room takes an id, and there are fewer hallways than rooms.
+     */
+    public static int getMaxConstructions(WorldConfig config) {
+        int roomsLimit = (int) Math.round(config.getVolume() * MAX_ROOM_DENSITY);
+        return roomsLimit * (MAX_TRY + 1);
+    }
+
+    /**
+     * Generate new hallways of the MST in one pass by the HallwayRouter.
      */
     public void generateHallways() {
-        KruskalForMst kfm = new KruskalForMst(this.rooms);
+        new HallwayRouter(this.rooms, this.grid, this.hallways).route();
+    }
+
+    /**
+     * Generate new hallways by MST, the path of every hallway is found by the A* algorithm.
+     */
+    public void generateHallwaysByAStar() {
+        KruskalForMst kfm = new KruskalForMst(this.rooms, this.grid.getConfig());
         List<Room[]> vertexes = kfm.generateVertexes();
+        AStar aStar = new AStar(this.grid, this.hallways);
         for (Room[] vertex : vertexes) {
-            Hallway newHallway = new Hallway(vertex, this.tileBricks, this.hallways);
-            this.hallways.put(newHallway.getKey(), newHallway);
+            Hallway newHallway = new Hallway(vertex, this.grid, aStar);
+            this.hallways.put(newHallway.getId(), newHallway);
         }
     }
 }
@@ -1,14 +1,16 @@
 package byow.Core.World;
 
 import byow.Core.Point;
-import byow.Core.TileBrick;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
- * This class represents a hallway that implement the A* algorithm for finding the way.
+ * This class represents a hallway, the path is either found by the A* algorithm,
+ * or given by the HallwayRouter.
  */
 public class Hallway extends Construction {
 
@@ -23,37 +25,50 @@ public class Hallway extends Construction {
     /**
      * The connected rooms.
      */
-    private final List<String> connectedRooms;
+    private final List<Integer> connectedRooms;
+
     /**
-     * The hallwayMap of the frame.
+     * Create a hallway by a vertex, the path is found by the A* algorithm.
      */
-    private final Map<String, Hallway> hallwayMap;
+    public Hallway(Room[] vertex, WorldGrid grid, AStar aStar) {
+        this(isStartRoom(vertex[0], vertex[1]) ? vertex[0] : vertex[1],
+                isStartRoom(vertex[0], vertex[1]) ? vertex[1] : vertex[0], grid, aStar);
+    }
 
     /**
-     * Create a hallway by a vertex.
+     * Create a hallway from the start room to the target room, the path is found by the A* algorithm.
      */
-    public Hallway(Room[] vertex, TileBrick[] properties, Map<String, Hallway> hallwayMap) {
-        super(properties);
-        this.hallwayMap = hallwayMap;
-        Room room1 = vertex[0];
-        Room room2 = vertex[1];
-        if (room1.getSwIndex() + room1.getNe().getIPoint() < room2.getSwIndex() + room2.getNe().getIPoint()) {
-            this.startRoom = room1;
-            this.targetRoom = room2;
-        } else {
-            this.startRoom = room2;
-            this.targetRoom = room1;
-        }
+    public Hallway(Room startRoom, Room targetRoom, WorldGrid grid, AStar aStar) {
+        super(grid);
+        this.startRoom = startRoom;
+        this.targetRoom = targetRoom;
         this.connectedRooms = new ArrayList<>();
-        buildHallway();
+        buildHallway(aStar.runAPlus(startRoom, targetRoom));
+    }
+
+    /**
+     * Return true if the first room is the start room of a hallway between the 2 rooms,
+     * that is the room of the smaller iPoints of the southwest and northeast corners.
+     */
+    public static boolean isStartRoom(Room room1, Room room2) {
+        return room1.getSwIndex() + room1.getNe().getIPoint() < room2.getSwIndex() + room2.getNe().getIPoint();
     }
 
     /**
-     * Build the hallway by the A* algorithm.
+     * Create a hallway by a given path from a gate of the start room to a gate of the target room.
      */
-    private void buildHallway() {
-        AStar aStar = new AStar(startRoom, targetRoom, tileBricks, hallwayMap);
-        List<Point> path = aStar.runAPlus();
+    public Hallway(Room startRoom, Room targetRoom, List<Point> path, WorldGrid grid) {
+        super(grid);
+        this.startRoom = startRoom;
+        this.targetRoom = targetRoom;
+        this.connectedRooms = new ArrayList<>();
+        buildHallway(path);
+    }
+
+    /**
+     * Build the hallway by the path, do nothing if there is no path.
+     */
+    private void buildHallway(List<Point> path) {
         if (path == null) {
             return;
         }
@@ -68,6 +83,12 @@ public class Hallway extends Construction {
      */
     private void addPathToHallway(List<Point> path) {
         int lastDirection = Point.DIRECTION_INIT;
+        int[] pathSet = new int[path.size()];
+        for (int i = 0; i < pathSet.length; i++) {
+            pathSet[i] = path.get(i).getIPoint();
+        }
+        Arrays.sort(pathSet);
+        int[] offsets = grid.getConfig().getNeighbourOffsets();
         for (int i = 0; i < path.size(); i++) {
             Point point = path.get(i);
             if (i == 0) {
@@ -84,7 +105,7 @@ public class Hallway extends Construction {
                 bricks.add(point);
                 Point prev = path.get(i - 1);
                 int direction = Point.getDirection(point, prev);
-                addHallwayWalls(path, point, prev, direction, lastDirection);
+                addHallwayWalls(pathSet, offsets, point, prev, direction, lastDirection);
                 if (direction != lastDirection) {
                     lastDirection = direction;
                 }
@@ -94,51 +115,75 @@ public class Hallway extends Construction {
 
     /**
      * Add the walls of the hallway by a given point and its prev.
+     * The neighbours are checked by their iPoints, so only the added walls create points.
+     * The path is the sorted iPoints of the path, the offsets are the shifts to the neighbours by NSWE.
      */
-    private void addHallwayWalls(List<Point> path, Point point, Point prev, int direction, int lastDirection) {
-        Point[] neighbors = Point.getNeighbours(point);
-        for (Point neighbor : neighbors) {
-            addHallwayWalls(path, neighbor);
+    private void addHallwayWalls(int[] path, int[] offsets, Point point, Point prev, int direction, int lastDirection) {
+        int iPoint = point.getIPoint();
+        int mask = grid.getConfig().getBorderMask(iPoint);
+        for (int d = Point.NORTH; d < Point.DIRECTION_INIT; d++) {
+            if ((mask & (1 << d)) != 0) {
+                addHallwayWall(path, iPoint + offsets[d]);
+            }
         }
         if (direction != lastDirection && lastDirection != Point.DIRECTION_INIT) {
-            Point turn;
+            int dx;
+            int dy;
             if ((lastDirection == Point.NORTH && direction == Point.EAST)
                     || (lastDirection == Point.WEST && direction == Point.SOUTH)) {
-                turn = prev.getShiftPoint(-1, 1); // add NorthWest corner;
+                dx = -1; // add NorthWest corner;
+                dy = 1;
             } else if (lastDirection == Point.SOUTH && direction == Point.EAST
                     || (lastDirection == Point.WEST && direction == Point.NORTH)) {
-                turn = prev.getShiftPoint(-1, -1); // add SouthWest corner;
+                dx = -1; // add SouthWest corner;
+                dy = -1;
             } else if (lastDirection == Point.NORTH && direction == Point.WEST
                     || (lastDirection == Point.EAST && direction == Point.SOUTH)) {
-                turn = prev.getShiftPoint(1, 1); // add NorthEast corner;
+                dx = 1; // add NorthEast corner;
+                dy = 1;
             } else {
-                turn = prev.getShiftPoint(1, -1); // add SouthEast corner;
+                dx = 1; // add SouthEast corner;
+                dy = -1;
+            }
+            WorldConfig config = grid.getConfig();
+            int x = prev.getX() + dx;
+            int y = prev.getY() + dy;
+            if (config.checkBound(x, y)) {
+                addHallwayWall(path, config.xyToIPoint(x, y));
             }
-            addHallwayWalls(path, turn);
         }
     }
 
     /**
-     * Add the walls of the hallway by a given point after checking.
+     * Add the wall of the hallway by a given iPoint in the world after checking.
      */
-    private void addHallwayWalls(List<Point> path, Point point) {
-        if (!path.contains(point)
-                && tileBricks[point.getIPoint()].getConstructionType() == TileBrick.CONSTRUCTION_TYPE_NOTHING) {
-            walls.add(point);
+    private void addHallwayWall(int[] path, int iPoint) {
+        if (Arrays.binarySearch(path, iPoint) < 0 && grid.isEmpty(iPoint)) {
+            walls.add(new Point(iPoint, grid.getConfig()));
         }
     }
 
+    /**
+     * Drop the grid of the hallway and its rooms.
+     */
+    @Override
+    void dropGrid() {
+        super.dropGrid();
+        startRoom.dropGrid();
+        targetRoom.dropGrid();
+    }
+
     /**
      * Add a room to connected list.
      */
     public void addConnectedRoom(Room room) {
-        connectedRooms.add(room.getKey());
+        connectedRooms.add(room.getId());
     }
 
     /**
      * Check if the connectedRoom contains a room.
      */
     public boolean containsRoom(Room room) {
-        return connectedRooms.contains(room.getKey());
+        return connectedRooms.contains(room.getId());
     }
 }
@@ -0,0 +1,187 @@
+package byow.Core.World;
+
+import byow.Core.Point;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class routes all the hallways of a frame in one pass.
+ * A breadth first search starts from the possible gates of every room at the same time, so every
+ * empty tile is reached by its nearest room. Where the tiles of 2 rooms meet, the 2 rooms can be
+ * connected through the meeting tiles, and the shortest meeting of every pair is an edge for the MST.
+ * A hallway of the MST is carved by following the previous directions from the meeting tiles back
+ * to the gates, so a hallway costs its length instead of a search.
+ */
+public class HallwayRouter {
+
+    /**
+     * The previous direction of a gate.
+     */
+    private static final byte NO_PREV = -1;
+    /**
+     * The owner of a tile that was not reached.
+     */
+    private static final int NO_OWNER = -1;
+    /**
+     * The grid of the frame.
+     */
+    private final WorldGrid grid;
+    /**
+     * The config of the world.
+     */
+    private final WorldConfig config;
+    /**
+     * The rooms of the frame.
+     */
+    private final List<Room> rooms;
+    /**
+     * The hallwayMap of the frame.
+     */
+    private final Map<Integer, Hallway> hallwayMap;
+    /**
+     * The shifts of the iPoint to the neighbours by the sequence NSWE.
+     */
+    private final int[] offsets;
+    /**
+     * The index of the room that reached every tile first.
+     */
+    private final int[] owners;
+    /**
+     * The distance from the gate of the owner of every tile.
+     */
+    private final int[] distTo;
+    /**
+     * The direction from the previous tile of every tile.
+     */
+    private final byte[] prevDirections;
+    /**
+     * The shortest meeting {tile, neighbour, length} of every pair of rooms, in the order they met.
+     */
+    private final Map<Long, int[]> meetings;
+
+    /**
+     * Create a router for the rooms of a frame, the hallways are put into the hallwayMap.
+     */
+    public HallwayRouter(List<Room> rooms, WorldGrid grid, Map<Integer, Hallway> hallwayMap) {
+        this.grid = grid;
+        this.config = grid.getConfig();
+        this.rooms = rooms;
+        this.hallwayMap = hallwayMap;
+        this.offsets = config.getNeighbourOffsets();
+        int volume = config.getVolume();
+        this.owners = new int[volume];
+        this.distTo = new int[volume];
+        this.prevDirections = new byte[volume];
+        this.meetings = new LinkedHashMap<>();
+    }
+
+    /**
+     * Search the meetings of the rooms, then build the hallways of the MST.
+     */
+    public void route() {
+        search();
+        KruskalForMst kfm = new KruskalForMst(rooms);
+        for (int[] meeting : meetings.values()) {
+            kfm.addVertex(owners[meeting[0]], owners[meeting[1]], meeting[2]);
+        }
+        for (Room[] vertex : kfm.generateVertexes()) {
+            int[] meeting = meetings.get(toKey(vertex[0].getId(), vertex[1].getId()));
+            Hallway hallway = new Hallway(rooms.get(owners[meeting[0]]), rooms.get(owners[meeting[1]]),
+                    getPath(meeting[0], meeting[1]), grid);
+            hallwayMap.put(hallway.getId(), hallway);
+        }
+    }
+
+    /**
+     * Search from the possible gates of all the rooms, and record where 2 rooms meet.
+     */
+    private void search() {
+        int[] queue = new int[config.getVolume()];
+        int head = 0;
+        int tail = 0;
+        Arrays.fill(owners, NO_OWNER);
+        for (int i = 0; i < rooms.size(); i++) {
+            for (int gate : rooms.get(i).getPossibleGates()) {
+                owners[gate] = i;
+                distTo[gate] = 0;
+                prevDirections[gate] = NO_PREV;
+                queue[tail++] = gate;
+            }
+        }
+        while (head < tail) {
+            int p = queue[head++];
+            int mask = config.getBorderMask(p);
+            for (int direction = Point.NORTH; direction < Point.DIRECTION_INIT; direction++) {
+                if ((mask & (1 << direction)) == 0) {
+                    continue;
+                }
+                int q = p + offsets[direction];
+                if (owners[q] == NO_OWNER) {
+                    if (grid.isEmpty(q)) {
+                        owners[q] = owners[p];
+                        distTo[q] = distTo[p] + 1;
+                        prevDirections[q] = (byte) direction;
+                        queue[tail++] = q;
+                    }
+                } else if (owners[q] != owners[p]) {
+                    meet(p, q);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record the meeting of the owners of 2 neighbour tiles if it is the shortest of the pair.
+     */
+    private void meet(int p, int q) {
+        int length = distTo[p] + distTo[q] + 1;
+        long key = toKey(rooms.get(owners[p]).getId(), rooms.get(owners[q]).getId());
+        int[] meeting = meetings.get(key);
+        if (meeting == null) {
+            meetings.put(key, new int[]{p, q, length});
+        } else if (length < meeting[2]) {
+            meeting[0] = p;
+            meeting[1] = q;
+            meeting[2] = length;
+        }
+    }
+
+    /**
+     * Return the path from the gate of the owner of p to the gate of the owner of q.
+     */
+    private List<Point> getPath(int p, int q) {
+        List<Point> points = new ArrayList<>();
+        addPathToGate(points, p);
+        Collections.reverse(points);
+        addPathToGate(points, q);
+        return points;
+    }
+
+    /**
+     * Add the tiles from the tile to the gate of its owner by following the previous directions.
+     */
+    private void addPathToGate(List<Point> points, int iPoint) {
+        while (true) {
+            points.add(new Point(iPoint, config));
+            byte direction = prevDirections[iPoint];
+            if (direction == NO_PREV) {
+                return;
+            }
+            iPoint = config.getNeighbour(iPoint, Point.getOpposite(direction));
+        }
+    }
+
+    /**
+     * Return the key of a pair of rooms by their ids, the order of the rooms does not matter.
+     */
+    private static long toKey(int id1, int id2) {
+        return ((long) Math.min(id1, id2) << 32) | Math.max(id1, id2);
+    }
+}
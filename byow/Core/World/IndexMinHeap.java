@@ -0,0 +1,156 @@
+package byow.Core.World;
+
+import java.util.Arrays;
+
+/**
+ * This class is an indexed binary min heap of integer keys.
+ * Every item is an index in [0, capacity), so the position of an item can be found in O(1),
+ * and the key of an item can be decreased in O(log n).
+ */
+public class IndexMinHeap {
+
+    /**
+     * The items in heap order, the root is at 0.
+     */
+    private int[] items;
+    /**
+     * The keys of the items by their position in the heap.
+     */
+    private int[] keys;
+    /**
+     * The position of every index in the heap, or -1 if it is not in the heap.
+     */
+    private final int[] positions;
+    /**
+     * The count of items in the heap.
+     */
+    private int size;
+
+    /**
+     * Create an empty heap for the indices in [0, capacity).
+     */
+    public IndexMinHeap(int capacity) {
+        final int initialSize = 16;
+        this.items = new int[initialSize];
+        this.keys = new int[initialSize];
+        this.positions = new int[capacity];
+        this.size = 0;
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Return true if the heap is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return true if the index is in the heap.
+     */
+    public boolean contains(int index) {
+        return positions[index] >= 0;
+    }
+
+    /**
+     * Insert an index with the key, or decrease its key if it is already in the heap.
+     * A larger key of an index in the heap is ignored.
+     */
+    public void insertOrDecrease(int index, int key) {
+        int pos = positions[index];
+        if (pos >= 0) {
+            if (key < keys[pos]) {
+                keys[pos] = key;
+                siftUp(pos);
+            }
+            return;
+        }
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        items[size] = index;
+        keys[size] = key;
+        positions[index] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Remove and return the index with the min key.
+     */
+    public int poll() {
+        int min = items[0];
+        size--;
+        positions[min] = -1;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Remove all the indices in O(size), so the heap can be used for the next search.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[items[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Move the item up until its parent is not larger.
+     */
+    private void siftUp(int pos) {
+        int item = items[pos];
+        int key = keys[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, pos);
+            pos = parent;
+        }
+        place(item, key, pos);
+    }
+
+    /**
+     * Move the item down until its children are not smaller.
+     */
+    private void siftDown(int pos) {
+        int item = items[pos];
+        int key = keys[pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, pos);
+            pos = child;
+        }
+        place(item, key, pos);
+    }
+
+    /**
+     * Move the item at the position from to the position to.
+     */
+    private void move(int from, int to) {
+        place(items[from], keys[from], to);
+    }
+
+    /**
+     * Place the item and its key at the position.
+     */
+    private void place(int item, int key, int pos) {
+        items[pos] = item;
+        keys[pos] = key;
+        positions[item] = pos;
+    }
+}
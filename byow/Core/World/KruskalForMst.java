@@ -2,189 +2,228 @@ package byow.Core.World;
 
 import byow.Core.Point;
 import byow.Core.Utils;
+import byow.Core.WorldConfig;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
 
 /**
  * This class is a Kruskal Algorithm implementation to solve the MST problem.
+ * A room is its index in the list of rooms, and a vertex is 2 indices and their distance.
+ * The vertexes are either given by the caller, or the k nearest neighbours of every room,
+ * that are found by putting the central points of the rooms into square buckets.
  */
 public class KruskalForMst {
+
     /**
-     * A priority queue of vertexes.
+     * The first count of nearest neighbours of a room.
      */
-    private final PriorityQueue<VertexOfPoints> queue;
+    private static final int NEAREST_NEIGHBOURS = 8;
     /**
-     * The rooms
+     * The rooms.
      */
     private final List<Room> rooms;
-
     /**
-     * This class respects a vertex of 2 points or rooms.
+     * The config of the world, or null if the vertexes are given by the caller.
      */
-    private static class VertexOfPoints implements Comparable<VertexOfPoints> {
-
-        /**
-         * The Manhattan distance between two points.
-         */
-        private final int dist;
-        /**
-         * The room 1 in the vertex.
-         */
-        private Room room1;
-        /**
-         * The room 2 in the vertex.
-         */
-        private Room room2;
-
-        /**
-         * Create a vertex by 2 rooms.
-         */
-        public VertexOfPoints(Room room1, Room room2) {
-            this(room1.getCentralPoint(), room2.getCentralPoint());
-            this.room1 = room1;
-            this.room2 = room2;
-        }
-
-        /**
-         * Create a vertex by 2 points.
-         */
-        public VertexOfPoints(Point point1, Point point2) {
-            this.room1 = null;
-            this.room2 = null;
-            this.dist = Utils.getDistance(point1.getX(), point1.getY(), point2.getX(), point2.getY());
-        }
-
-        /**
-         * Use the distance to compare 2 vertexes.
-         */
-        @Override
-        public int compareTo(VertexOfPoints v) {
-            return this.dist - v.dist;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (o == null || o.getClass() != VertexOfPoints.class) {
-                return false;
-            }
-            return ((room1.equals(((VertexOfPoints) o).room1)
-                    && room2.equals(((VertexOfPoints) o).room2))
-                    || (room2.equals(((VertexOfPoints) o).room1)
-                    && room1.equals(((VertexOfPoints) o).room2)));
-        }
+    private final WorldConfig config;
+    /**
+     * The count of nearest neighbours of a room, or 0 if the vertexes are given by the caller.
+     */
+    private int neighbours;
+    /**
+     * The 1st room of every vertex.
+     */
+    private int[] rooms1;
+    /**
+     * The 2nd room of every vertex.
+     */
+    private int[] rooms2;
+    /**
+     * The distance of every vertex.
+     */
+    private int[] dists;
+    /**
+     * The count of vertexes.
+     */
+    private int size;
 
-        @Override
-        public int hashCode() {
-            return room1.hashCode() + room2.hashCode();
-        }
+    /**
+     * Create an empty Kruskal Algorithm for the rooms, the vertexes are added by addVertex.
+     */
+    public KruskalForMst(List<Room> rooms) {
+        this(rooms, null, 0);
     }
 
     /**
-     * This class is a simple DisjointSet data structure implementation.
+     * Create a Kruskal Algorithm for the rooms by the nearest neighbours of every room.
      */
-    private static class DisjointSet {
-
-        /**
-         * An array of all the points with parent point.
-         */
-        private final int[] points;
-
-        /**
-         * Build an array to save the DJS, and set the value to their index.
-         */
-        public DisjointSet() {
-            points = new int[Frame.VOLUME];
-            for (int i = 0; i < Frame.VOLUME; i++) {
-                points[i] = i;
-            }
-        }
-
-        /**
-         * Return the root point of the point.
-         */
-        public int find(int iPoint) {
-            if (points[iPoint] == iPoint) {
-                return iPoint;
-            }
-            return find(points[iPoint]);
-        }
-
-        /**
-         * Return if the point1 is connected with point2 by checking if they have same root point.
-         */
-        public boolean isConnected(int iPoint1, int iPoint2) {
-            return find(iPoint1) == find(iPoint2);
-        }
+    public KruskalForMst(List<Room> rooms, WorldConfig config) {
+        this(rooms, config, NEAREST_NEIGHBOURS);
+    }
 
-        /**
-         * Connect the 2 points.
-         */
-        public void connect(int iPoint1, int iPoint2) {
-            points[find(iPoint2)] = points[find(iPoint1)];
+    /**
+     * Create a Kruskal Algorithm by the rooms, the config and the count of nearest neighbours.
+     */
+    private KruskalForMst(List<Room> rooms, WorldConfig config, int neighbours) {
+        final int initialSize = 16;
+        this.rooms = rooms;
+        this.config = config;
+        this.neighbours = neighbours;
+        this.rooms1 = new int[initialSize];
+        this.rooms2 = new int[initialSize];
+        this.dists = new int[initialSize];
+        this.size = 0;
+        if (neighbours > 0) {
+            addNearestVertexes();
         }
     }
 
     /**
-     * Create a Priority Queue for Kruskal Algorithm.
+     * Add a vertex of 2 rooms by their indices and the given distance.
      */
-    public KruskalForMst(List<Room> rooms) {
-        this.queue = new PriorityQueue<>();
-        this.rooms = rooms;
-        ArrayList<VertexOfPoints> visited = new ArrayList<>();
-        for (Room currRoom : rooms) {
-            for (Room targetRoom : rooms) {
-                if (!currRoom.equals(targetRoom)) {
-                    VertexOfPoints vertex = new VertexOfPoints(currRoom, targetRoom);
-                    if (!visited.contains(vertex)) {
-                        queue.add(vertex);
-                        visited.add(vertex);
-                    }
-                }
-            }
+    public void addVertex(int room1, int room2, int dist) {
+        if (size == dists.length) {
+            rooms1 = Arrays.copyOf(rooms1, size * 2);
+            rooms2 = Arrays.copyOf(rooms2, size * 2);
+            dists = Arrays.copyOf(dists, size * 2);
         }
+        rooms1[size] = room1;
+        rooms2[size] = room2;
+        dists[size] = dist;
+        size++;
     }
 
     /**
      * Return an Array of the routes.
+     * If the nearest neighbours cannot connect all the rooms, look for twice the neighbours again.
      */
     public List<Room[]> generateVertexes() {
-        DisjointSet djs = buildDjs();
+        List<Room[]> vertexList = runKruskal();
+        while (neighbours > 0 && neighbours < rooms.size() - 1 && vertexList.size() < rooms.size() - 1) {
+            neighbours = Math.min(neighbours * 2, rooms.size() - 1);
+            size = 0;
+            addNearestVertexes();
+            vertexList = runKruskal();
+        }
+        return vertexList;
+    }
+
+    /**
+     * Return the vertexes of the MST, the vertexes of the same distance are taken in the order they were added.
+     */
+    private List<Room[]> runKruskal() {
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) dists[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        DisjointSet djs = new DisjointSet(rooms.size());
         ArrayList<Room[]> vertexList = new ArrayList<>();
-        while (!this.queue.isEmpty()) {
-            VertexOfPoints vertex = queue.poll();
-            int room1 = vertex.room1.getSwIndex();
-            int room2 = vertex.room2.getSwIndex();
-            if (!djs.isConnected(room1, room2)) {
-                djs.connect(room1, room2);
-                vertexList.add(new Room[]{vertex.room1, vertex.room2});
+        for (long key : order) {
+            int i = (int) key;
+            if (djs.connect(rooms1[i], rooms2[i])) {
+                vertexList.add(new Room[]{rooms.get(rooms1[i]), rooms.get(rooms2[i])});
+                if (djs.getCount() == 1) {
+                    break;
+                }
             }
         }
         return vertexList;
     }
 
     /**
-     * Build a DisjointSet for Kruskal Algorithm.
+     * Add the vertexes from every room to its nearest neighbours by the Manhattan distance of the central points.
+     * The central points are put into square buckets, and the buckets are searched ring by ring around a room,
+     * until the rooms out of the searched rings cannot be nearer than the found ones.
      */
-    private DisjointSet buildDjs() {
-        DisjointSet djs = new DisjointSet();
-        for (Room room : rooms) {
-            int sw = room.getSw().getIPoint();
-            List<Point> walls = room.getWalls();
-            connectDjs(walls, sw, djs);
-            List<Point> bricks = room.getBricks();
-            connectDjs(bricks, sw, djs);
+    private void addNearestVertexes() {
+        int count = rooms.size();
+        if (count < 2) {
+            return;
+        }
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            Point central = rooms.get(i).getCentralPoint();
+            xs[i] = central.getX();
+            ys[i] = central.getY();
+        }
+        int bucketSize = Math.max(1, (int) Math.sqrt((double) config.getVolume() / count));
+        int bucketsX = config.getWidth() / bucketSize + 1;
+        int bucketsY = config.getHeight() / bucketSize + 1;
+        int[] bucketStarts = new int[bucketsX * bucketsY + 1];
+        for (int i = 0; i < count; i++) {
+            bucketStarts[xs[i] / bucketSize * bucketsY + ys[i] / bucketSize + 1]++;
+        }
+        for (int b = 0; b < bucketsX * bucketsY; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        int[] bucketRooms = new int[count];
+        int[] filled = Arrays.copyOf(bucketStarts, bucketStarts.length - 1);
+        for (int i = 0; i < count; i++) {
+            bucketRooms[filled[xs[i] / bucketSize * bucketsY + ys[i] / bucketSize]++] = i;
+        }
+
+        int k = Math.min(neighbours, count - 1);
+        int[] bestRooms = new int[k];
+        int[] bestDists = new int[k];
+        int maxRing = Math.max(bucketsX, bucketsY);
+        for (int i = 0; i < count; i++) {
+            int found = 0;
+            int bx = xs[i] / bucketSize;
+            int by = ys[i] / bucketSize;
+            for (int ring = 0; ring <= maxRing; ring++) {
+                for (int x = bx - ring; x <= bx + ring; x++) {
+                    if (x < 0 || x >= bucketsX) {
+                        continue;
+                    }
+                    boolean isSide = x == bx - ring || x == bx + ring;
+                    for (int y = by - ring; y <= by + ring; y += isSide ? 1 : 2 * ring) {
+                        if (y < 0 || y >= bucketsY) {
+                            continue;
+                        }
+                        int b = x * bucketsY + y;
+                        for (int j = bucketStarts[b]; j < bucketStarts[b + 1]; j++) {
+                            int other = bucketRooms[j];
+                            if (other != i) {
+                                int dist = Utils.getDistance(xs[i], ys[i], xs[other], ys[other]);
+                                found = insertNearest(bestRooms, bestDists, found, other, dist);
+                            }
+                        }
+                        if (ring == 0) {
+                            break;
+                        }
+                    }
+                }
+                if (found == k && bestDists[k - 1] <= ring * bucketSize) {
+                    break;
+                }
+            }
+            for (int j = 0; j < found; j++) {
+                addVertex(i, bestRooms[j], bestDists[j]);
+            }
         }
-        return djs;
     }
 
     /**
-     * Connect the bricks to the room.
+     * Insert a room into the nearest rooms that are sorted by the distance and then the index,
+     * the farthest room is dropped when it is full. Return the new count of the nearest rooms.
      */
-    private void connectDjs(List<Point> points, int sw, DisjointSet djs) {
-        for (Point point : points) {
-            djs.connect(sw, point.getIPoint());
+    private static int insertNearest(int[] bestRooms, int[] bestDists, int found, int room, int dist) {
+        int k = bestRooms.length;
+        if (found == k && (dist > bestDists[k - 1] || (dist == bestDists[k - 1] && room > bestRooms[k - 1]))) {
+            return found;
+        }
+        int pos = found == k ? k - 1 : found;
+        while (pos > 0 && (bestDists[pos - 1] > dist || (bestDists[pos - 1] == dist && bestRooms[pos - 1] > room))) {
+            bestRooms[pos] = bestRooms[pos - 1];
+            bestDists[pos] = bestDists[pos - 1];
+            pos--;
         }
+        bestRooms[pos] = room;
+        bestDists[pos] = dist;
+        return found == k ? k : found + 1;
     }
 }
@@ -0,0 +1,108 @@
+package byow.Core.World;
+
+import byow.Core.WorldConfig;
+
+/**
+ * This class records the tiles that are taken by the rooms of a frame.
+ * Every row is a bitset of 64 tiles per long, so a rectangle is tested by its rows,
+ * and a row is tested by a few words instead of tile by tile.
+ */
+public class OccupancyIndex {
+
+    /**
+     * The count of tiles of a word.
+     */
+    private static final int WORD_SIZE = 64;
+    /**
+     * The config of the world.
+     */
+    private final WorldConfig config;
+    /**
+     * The count of words of a row.
+     */
+    private final int wordsPerRow;
+    /**
+     * The bits of the rows, the row at Y starts at Y * wordsPerRow.
+     */
+    private final long[] words;
+
+    /**
+     * Create an empty index for the world of the config.
+     */
+    public OccupancyIndex(WorldConfig config) {
+        this.config = config;
+        this.wordsPerRow = (config.getWidth() + WORD_SIZE - 1) / WORD_SIZE;
+        this.words = new long[wordsPerRow * config.getHeight()];
+    }
+
+    /**
+     * Return true if no tile of the rectangle is taken,
+     * the rectangle is given by its southwest corner, width and height.
+     */
+    public boolean isFree(int x, int y, int width, int height) {
+        checkRectangle(x, y, width, height);
+        int lastX = x + width - 1;
+        for (int j = y; j < y + height; j++) {
+            if (!isRowFree(j, x, lastX)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mark all the tiles of the rectangle as taken.
+     */
+    public void occupy(int x, int y, int width, int height) {
+        checkRectangle(x, y, width, height);
+        int lastX = x + width - 1;
+        int firstWord = x / WORD_SIZE;
+        int lastWord = lastX / WORD_SIZE;
+        for (int j = y; j < y + height; j++) {
+            int row = j * wordsPerRow;
+            for (int w = firstWord; w <= lastWord; w++) {
+                words[row + w] |= getMask(w, firstWord, lastWord, x, lastX);
+            }
+        }
+    }
+
+    /**
+     * Return true if no tile from x to lastX of the row is taken.
+     */
+    private boolean isRowFree(int y, int x, int lastX) {
+        int firstWord = x / WORD_SIZE;
+        int lastWord = lastX / WORD_SIZE;
+        int row = y * wordsPerRow;
+        for (int w = firstWord; w <= lastWord; w++) {
+            if ((words[row + w] & getMask(w, firstWord, lastWord, x, lastX)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the bits of the word w that are between x and lastX.
+     */
+    private static long getMask(int w, int firstWord, int lastWord, int x, int lastX) {
+        long mask = -1L;
+        if (w == firstWord) {
+            mask &= -1L << (x % WORD_SIZE);
+        }
+        if (w == lastWord) {
+            mask &= -1L >>> (WORD_SIZE - 1 - lastX % WORD_SIZE);
+        }
+        return mask;
+    }
+
+    /**
+     * Throw an IllegalArgumentException if the rectangle is empty or out of the world.
+     */
+    private void checkRectangle(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0 || !config.checkBound(x, y)
+                || !config.checkBound(x + width - 1, y + height - 1)) {
+            throw new IllegalArgumentException("The rectangle (" + x + ", " + y + ") "
+                    + width + " x " + height + " is out of the world " + config + ".");
+        }
+    }
+}
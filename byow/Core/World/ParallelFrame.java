@@ -0,0 +1,273 @@
+package byow.Core.World;
+
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
+import byow.Core.WorldStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class creates a large world in parallel.
+ * The world is split into square regions, and every region is a small frame with its own random,
+ * so the regions are created on a ForkJoinPool at the same time and copied into the world.
+ * Then the neighbour regions are joined one by one by the hallways between their rooms that are
+ * nearest to the border, the hallway is built in a copy of the two regions on the heap that is copied back,
+ * so the heap that is taken grows with a region instead of the world, and the world can be a WorldStore
+ * that is not on the heap, e.g. a MappedWorldGrid.
+ *
+ * The random of every region is split from the seed in the order of the regions, and every region
+ * has a reserved range of construction ids, so the world does not depend on the count of threads.
+ */
+public class ParallelFrame {
+
+    /**
+     * The default side length of a region.
+     */
+    public static final int DEFAULT_REGION_SIZE = 256;
+    /**
+     * The min side length of a region, so every region has some rooms.
+     */
+    private static final int MIN_REGION_SIZE = 32;
+    /**
+     * The seed of the world.
+     */
+    private final long seed;
+    /**
+     * The world.
+     */
+    private final WorldStore world;
+    /**
+     * The side length of a region, the last region of a row or a column also takes the rest.
+     */
+    private final int regionSize;
+    /**
+     * The count of regions of a row.
+     */
+    private final int regionsX;
+    /**
+     * The count of regions of a column.
+     */
+    private final int regionsY;
+    /**
+     * The hallways that join the regions.
+     */
+    private final TreeMap<Integer, Hallway> hallways;
+
+    /**
+     * This class keeps the rooms of a region that are nearest to every border, as the copies in the world
+     * without a grid, that are copied to a band when they are joined.
+     */
+    private static class Region {
+
+        /**
+         * The rooms that are nearest to the west, east, south and north border.
+         */
+        private Room west;
+        private Room east;
+        private Room south;
+        private Room north;
+
+        /**
+         * Find the rooms of a frame that are nearest to the borders, and copy them to the world.
+         */
+        public Region(List<Room> rooms, int x, int y, int idOffset, WorldConfig config) {
+            for (Room room : rooms) {
+                if (west == null || room.getSw().getX() < west.getSw().getX()) {
+                    west = room;
+                }
+                if (east == null || room.getNe().getX() > east.getNe().getX()) {
+                    east = room;
+                }
+                if (south == null || room.getSw().getY() < south.getSw().getY()) {
+                    south = room;
+                }
+                if (north == null || room.getNe().getY() > north.getNe().getY()) {
+                    north = room;
+                }
+            }
+            west = copy(west, x, y, idOffset, config);
+            east = copy(east, x, y, idOffset, config);
+            south = copy(south, x, y, idOffset, config);
+            north = copy(north, x, y, idOffset, config);
+        }
+
+        /**
+         * Return the copy of a room in the world, or null if there is no room.
+         */
+        private static Room copy(Room room, int x, int y, int idOffset, WorldConfig config) {
+            return room == null ? null : new Room(room, x, y, idOffset, config, null);
+        }
+
+        /**
+         * Replace a room by its copy after it is joined, a room can be nearest to 2 borders.
+         */
+        private void update(Room room, Room updated) {
+            west = west == room ? updated : west;
+            east = east == room ? updated : east;
+            south = south == room ? updated : south;
+            north = north == room ? updated : north;
+        }
+    }
+
+    /**
+     * Create a frame with the default side length of a region.
+     */
+    public ParallelFrame(long seed, WorldStore world) {
+        this(seed, world, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Create a frame by the given seed, world and side length of a region.
+     */
+    public ParallelFrame(long seed, WorldStore world, int regionSize) {
+        if (regionSize < MIN_REGION_SIZE) {
+            throw new IllegalArgumentException("The region size must be at least " + MIN_REGION_SIZE + ".");
+        }
+        WorldConfig config = world.getConfig();
+        this.seed = seed;
+        this.world = world;
+        this.regionSize = regionSize;
+        this.regionsX = Math.max(1, config.getWidth() / regionSize);
+        this.regionsY = Math.max(1, config.getHeight() / regionSize);
+        this.hallways = new TreeMap<>();
+    }
+
+    /**
+     * Create rooms and hallways on the common pool.
+     */
+    public void create() {
+        create(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create the regions on the given pool, then join them.
+     */
+    public void create(ForkJoinPool pool) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Callable<Region>> tasks = new ArrayList<>();
+        for (int i = 0; i < regionsX; i++) {
+            for (int j = 0; j < regionsY; j++) {
+                long regionSeed = random.split().nextLong();
+                int x = i * regionSize;
+                int y = j * regionSize;
+                int width = getRegionLength(i, regionsX, world.getConfig().getWidth());
+                int height = getRegionLength(j, regionsY, world.getConfig().getHeight());
+                int maxConstructions = Frame.getMaxConstructions(new WorldConfig(width, height));
+                int idOffset = world.newConstructionIds(maxConstructions);
+                tasks.add(() -> createRegion(regionSeed, x, y, width, height, idOffset, maxConstructions));
+            }
+        }
+        List<Future<Region>> futures = pool.invokeAll(tasks);
+        Region[] regions = new Region[futures.size()];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = getRegion(futures.get(i));
+        }
+        joinRegions(regions);
+    }
+
+    /**
+     * Return the side length of the region by its index, the last region takes the rest, so it is the longest.
+     */
+    private int getRegionLength(int index, int count, int length) {
+        return index == count - 1 ? length - index * regionSize : regionSize;
+    }
+
+    /**
+     * Create a region as a frame of its own, and copy it to the world.
+     */
+    private Region createRegion(long regionSeed, int x, int y, int width, int height,
+                                int idOffset, int maxConstructions) {
+        WorldGrid part = new WorldGrid(new WorldConfig(width, height));
+        Frame frame = new Frame(new Random(regionSeed), part);
+        frame.create();
+        if (part.getConstructionCount() > maxConstructions) {
+            throw new IllegalStateException("Too many constructions in the region at (" + x + ", " + y + ").");
+        }
+        world.copyFrom(part, x, y, idOffset);
+        return new Region(frame.getRooms(), x, y, idOffset, world.getConfig());
+    }
+
+    /**
+     * Return the region of a finished task.
+     */
+    private static Region getRegion(Future<Region> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("The creating of the regions was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Cannot create a region.", e.getCause());
+        }
+    }
+
+    /**
+     * Join every region with its east and north neighbour by the A* algorithm, the search of a seam
+     * is limited to the band of its two regions.
+     */
+    private void joinRegions(Region[] regions) {
+        WorldConfig config = world.getConfig();
+        for (int i = 0; i < regionsX; i++) {
+            for (int j = 0; j < regionsY; j++) {
+                Region region = regions[i * regionsY + j];
+                int x = i * regionSize;
+                int y = j * regionSize;
+                int width = getRegionLength(i, regionsX, config.getWidth());
+                int height = getRegionLength(j, regionsY, config.getHeight());
+                if (i + 1 < regionsX) {
+                    Region east = regions[(i + 1) * regionsY + j];
+                    join(region, region.east, east, east.west,
+                            x, y, width + getRegionLength(i + 1, regionsX, config.getWidth()), height);
+                }
+                if (j + 1 < regionsY) {
+                    Region north = regions[i * regionsY + j + 1];
+                    join(region, region.north, north, north.south,
+                            x, y, width, height + getRegionLength(j + 1, regionsY, config.getHeight()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Build a hallway between 2 rooms of neighbour regions in the band of the given southwest corner,
+     * width and height. The band and a margin of a tile for the walls of the hallway are copied to a grid,
+     * the hallway is built in the grid and the grid is copied back, so the world is the same as if the hallway
+     * was built in the world. The start room is chosen in the world, since the order of iPoints of the grid
+     * can be different.
+     */
+    private void join(Region region1, Room room1, Region region2, Room room2, int x, int y, int width, int height) {
+        if (room1 == null || room2 == null) {
+            return;
+        }
+        WorldConfig config = world.getConfig();
+        int bandX = Math.max(0, x - 1);
+        int bandY = Math.max(0, y - 1);
+        WorldGrid band = new WorldGrid(new WorldConfig(Math.min(config.getWidth(), x + width + 1) - bandX,
+                Math.min(config.getHeight(), y + height + 1) - bandY));
+        world.copyTo(band, bandX, bandY);
+        int count = world.getConstructionCount();
+        band.newConstructionIds(count);
+        AStar aStar = new AStar(band, hallways);
+        aStar.setWindow(x - bandX, y - bandY, width, height);
+        boolean isRoom1Start = Hallway.isStartRoom(room1, room2);
+        Room start = new Room(isRoom1Start ? room1 : room2, -bandX, -bandY, 0, band);
+        Room target = new Room(isRoom1Start ? room2 : room1, -bandX, -bandY, 0, band);
+        Hallway hallway = new Hallway(start, target, band, aStar);
+        hallway.dropGrid();
+        hallways.put(hallway.getId(), hallway);
+        world.newConstructionIds(band.getConstructionCount() - count);
+        world.copyFrom(band, bandX, bandY, 0);
+        Room joined1 = new Room(isRoom1Start ? start : target, bandX, bandY, 0, config, null);
+        Room joined2 = new Room(isRoom1Start ? target : start, bandX, bandY, 0, config, null);
+        region1.update(room1, joined1);
+        region2.update(room2, joined2);
+    }
+}
@@ -1,8 +1,8 @@
 package byow.Core.World;
 
-import byow.Core.Engine;
 import byow.Core.Point;
-import byow.Core.TileBrick;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -38,14 +38,60 @@ public class Room extends Construction {
     /**
      * Create a room by a given random generator and lBound which is the bound of width and height.
      */
-    public Room(Random rand, TileBrick[] tileBricks) {
-        super(tileBricks);
+    public Room(Random rand, WorldGrid grid) {
+        super(grid);
+        WorldConfig config = grid.getConfig();
         this.width = Room.getRandomLength(rand);
         this.height = Room.getRandomLength(rand);
-        this.sw = new Point(rand.nextInt(Engine.WIDTH - width),
-                rand.nextInt(Engine.HEIGHT - height));
+        this.sw = new Point(rand.nextInt(config.getWidth() - width),
+                rand.nextInt(config.getHeight() - height), config);
         this.central = new Point(this.getSw().getX() + (this.width / 2),
-                this.sw.getY() + (this.height / 2));
+                this.sw.getY() + (this.height / 2), config);
+    }
+
+    /**
+     * Create a room by the given southwest corner, width and height.
+     */
+    public Room(Point sw, int width, int height, WorldGrid grid) {
+        super(grid);
+        this.width = width;
+        this.height = height;
+        this.sw = sw;
+        this.central = sw.getShiftPoint(width / 2, height / 2);
+    }
+
+    /**
+     * Create a copy of a room of a part of the world in the grid of the whole world,
+     * the room is moved by dx and dy, and its id is moved by idOffset.
+     */
+    public Room(Room room, int dx, int dy, int idOffset, WorldGrid grid) {
+        this(room, dx, dy, idOffset, grid.getConfig(), grid);
+    }
+
+    /**
+     * Create a copy of a room that is moved by dx and dy in a world of the given config, the grid is null
+     * for a copy that is only kept to be copied again, e.g. a room of a region of ParallelFrame.
+     */
+    Room(Room room, int dx, int dy, int idOffset, WorldConfig config, WorldGrid grid) {
+        super(grid, room.getId() + idOffset);
+        this.width = room.width;
+        this.height = room.height;
+        this.sw = new Point(room.sw.getX() + dx, room.sw.getY() + dy, config);
+        this.central = sw.getShiftPoint(width / 2, height / 2);
+        this.walls = shiftPoints(room.walls, dx, dy, config);
+        this.bricks = shiftPoints(room.bricks, dx, dy, config);
+        this.gates = shiftPoints(room.gates, dx, dy, config);
+    }
+
+    /**
+     * Return the copies of the points that are moved by dx and dy.
+     */
+    private static List<Point> shiftPoints(List<Point> points, int dx, int dy, WorldConfig config) {
+        List<Point> shifted = new ArrayList<>(points.size());
+        for (Point point : points) {
+            shifted.add(new Point(point.getX() + dx, point.getY() + dy, config));
+        }
+        return shifted;
     }
 
     /**
@@ -114,11 +160,18 @@ public class Room extends Construction {
     /**
      * Return a list of possible gates which means the bricks of walls but not the corner.
      */
-    public List<Integer> getPossibleGates() {
-        List<Integer> possibleGates = new ArrayList<>();
+    public int[] getPossibleGates() {
+        int count = 0;
+        for (Point wallBrick : this.getWalls()) {
+            if (!isCorner(wallBrick)) {
+                count++;
+            }
+        }
+        int[] possibleGates = new int[count];
+        int i = 0;
         for (Point wallBrick : this.getWalls()) {
             if (!isCorner(wallBrick)) {
-                possibleGates.add(wallBrick.getIPoint());
+                possibleGates[i++] = wallBrick.getIPoint();
             }
         }
         return possibleGates;
@@ -128,16 +181,25 @@ public class Room extends Construction {
      * Return if a point is a corner of a room.
      */
     public boolean isCorner(Point point) {
-        return point.equals(getSw())
-                || point.equals(getNw())
-                || point.equals(getSe())
-                || point.equals(getNe());
+        return isCorner(point.getX(), point.getY());
     }
 
     /**
-     * Create a room by the fields of the class
+     * Return if the X and Y is a corner of a room.
      */
-    public boolean generateNewRoom() {
+    public boolean isCorner(int x, int y) {
+        return (x == sw.getX() || x == sw.getX() + width - 1)
+                && (y == sw.getY() || y == sw.getY() + height - 1);
+    }
+
+    /**
+     * Create a room by the fields of the class if it is NO conflict with the other rooms of the occupancy.
+     * The points of the room are only created after the room is accepted.
+     */
+    public boolean generateNewRoom(OccupancyIndex occupancy) {
+        if (!occupancy.isFree(sw.getX(), sw.getY(), width, height)) {
+            return false;
+        }
         for (int i = 0; i < width; i++) {
             for (int j = 0; j < height; j++) {
                 if (i == 0 || i == width - 1 || j == 0 || j == height - 1) {
@@ -147,37 +209,11 @@ public class Room extends Construction {
                 }
             }
         }
-        if (!checkConflict()) {
-            return false;
-        }
+        occupancy.occupy(sw.getX(), sw.getY(), width, height);
         insertToFrameFields();
         return true;
     }
 
-    /**
-     * Return true the room is NO conflict with other rooms.
-     */
-    private boolean checkConflict() {
-        for (Point brick : bricks) {
-            if (!checkConflict(brick)) {
-                return false;
-            }
-        }
-        for (Point wall : walls) {
-            if (!checkConflict(wall)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Check if the point is a part of other rooms.
-     */
-    private boolean checkConflict(Point p) {
-        return tileBricks[p.getIPoint()].getConstructionType() == TileBrick.CONSTRUCTION_TYPE_NOTHING;
-    }
-
     /**
      * Set the point of gate by the given point.
      */
@@ -191,7 +227,7 @@ public class Room extends Construction {
         }
         this.gates.add(p);
         this.walls.remove(p);
-        tileBricks[p.getIPoint()].setValue(Construction.GATES, TileBrick.CONSTRUCTION_TYPE_ROOM, getKey());
+        grid.setValue(p.getIPoint(), Construction.GATES, WorldGrid.CONSTRUCTION_TYPE_ROOM, getId());
         return true;
     }
 
@@ -200,11 +236,11 @@ public class Room extends Construction {
         if (o == null || o.getClass() != Room.class) {
             return false;
         }
-        return this.getKey().equals(((Room) o).getKey());
+        return this.getId() == ((Room) o).getId();
     }
 
     @Override
     public int hashCode() {
-        return this.getKey().hashCode();
+        return this.getId();
     }
 }
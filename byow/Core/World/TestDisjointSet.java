@@ -0,0 +1,84 @@
+package byow.Core.World;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of DisjointSet.
+ */
+public class TestDisjointSet {
+
+    @Test
+    public void testNewSets() {
+        DisjointSet djs = new DisjointSet(5);
+        assertEquals(5, djs.getCount());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, djs.find(i));
+            assertFalse(djs.isConnected(i, (i + 1) % 5));
+        }
+    }
+
+    @Test
+    public void testConnect() {
+        DisjointSet djs = new DisjointSet(5);
+        assertTrue(djs.connect(0, 1));
+        assertTrue(djs.connect(3, 4));
+        assertFalse(djs.connect(1, 0));
+        assertEquals(3, djs.getCount());
+        assertTrue(djs.isConnected(0, 1));
+        assertFalse(djs.isConnected(1, 3));
+
+        assertTrue(djs.connect(1, 4));
+        assertFalse(djs.connect(0, 3));
+        assertEquals(2, djs.getCount());
+        assertTrue(djs.isConnected(0, 4));
+        assertFalse(djs.isConnected(2, 0));
+    }
+
+    @Test
+    public void testLongChain() {
+        int count = 1_000_000;
+        DisjointSet djs = new DisjointSet(count);
+        for (int i = 1; i < count; i++) {
+            assertTrue(djs.connect(i - 1, i));
+        }
+        assertEquals(1, djs.getCount());
+        assertTrue(djs.isConnected(0, count - 1));
+    }
+
+    @Test
+    public void testRandomConnects() {
+        int count = 1000;
+        DisjointSet djs = new DisjointSet(count);
+        int[] labels = new int[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = i;
+        }
+        int sets = count;
+        Random random = new Random(31);
+        for (int n = 0; n < 800; n++) {
+            int a = random.nextInt(count);
+            int b = random.nextInt(count);
+            int labelA = labels[a];
+            int labelB = labels[b];
+            assertEquals(labelA != labelB, djs.connect(a, b));
+            if (labelA != labelB) {
+                for (int i = 0; i < count; i++) {
+                    if (labels[i] == labelB) {
+                        labels[i] = labelA;
+                    }
+                }
+                sets--;
+            }
+            assertEquals(sets, djs.getCount());
+        }
+        for (int n = 0; n < 2000; n++) {
+            int a = random.nextInt(count);
+            int b = random.nextInt(count);
+            assertEquals(labels[a] == labels[b], djs.isConnected(a, b));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package byow.Core.World;
+
+import byow.Core.Point;
+import byow.Core.WorldConfig;
+import byow.Core.WorldGrid;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of KruskalForMst.
+ */
+public class TestKruskalForMst {
+
+    /**
+     * The config of the world of the rooms.
+     */
+    private static final WorldConfig CONFIG = new WorldConfig(200, 100);
+
+    /**
+     * Return the rooms of 4 x 4 at the given southwest corners, that are X and Y in turn.
+     */
+    private static List<Room> newRooms(WorldGrid grid, int... corners) {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < corners.length; i += 2) {
+            rooms.add(new Room(new Point(corners[i], corners[i + 1], CONFIG), 4, 4, grid));
+        }
+        return rooms;
+    }
+
+    /**
+     * Assert that the vertexes connect all the rooms.
+     */
+    private static void assertConnected(List<Room> rooms, List<Room[]> vertexes) {
+        DisjointSet djs = new DisjointSet(rooms.size());
+        for (Room[] vertex : vertexes) {
+            assertTrue(djs.connect(rooms.indexOf(vertex[0]), rooms.indexOf(vertex[1])));
+        }
+        assertEquals(1, djs.getCount());
+    }
+
+    @Test
+    public void testGivenVertexes() {
+        WorldGrid grid = new WorldGrid(CONFIG);
+        List<Room> rooms = newRooms(grid, 0, 0, 10, 0, 20, 0, 30, 0);
+        KruskalForMst mst = new KruskalForMst(rooms);
+        mst.addVertex(0, 1, 1);
+        mst.addVertex(1, 2, 2);
+        mst.addVertex(0, 2, 2);
+        mst.addVertex(2, 3, 5);
+        mst.addVertex(0, 3, 4);
+
+        List<Room[]> vertexes = mst.generateVertexes();
+        int[][] expected = {{0, 1}, {1, 2}, {0, 3}};
+        assertEquals(expected.length, vertexes.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(rooms.get(expected[i][0]), vertexes.get(i)[0]);
+            assertSame(rooms.get(expected[i][1]), vertexes.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void testDisconnectedVertexes() {
+        WorldGrid grid = new WorldGrid(CONFIG);
+        List<Room> rooms = newRooms(grid, 0, 0, 10, 0, 20, 0, 30, 0);
+        KruskalForMst mst = new KruskalForMst(rooms);
+        mst.addVertex(0, 1, 3);
+        mst.addVertex(2, 3, 1);
+
+        List<Room[]> vertexes = mst.generateVertexes();
+        assertEquals(2, vertexes.size());
+        assertSame(rooms.get(2), vertexes.get(0)[0]);
+        assertSame(rooms.get(0), vertexes.get(1)[0]);
+    }
+
+    @Test
+    public void testNearestNeighbours() {
+        WorldGrid grid = new WorldGrid(CONFIG);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            rooms.add(new Room(new Point(i % 6 * 30 + 5, i / 6 * 18 + 3, CONFIG), 4, 4, grid));
+        }
+        List<Room[]> vertexes = new KruskalForMst(rooms, CONFIG).generateVertexes();
+        assertEquals(rooms.size() - 1, vertexes.size());
+        assertConnected(rooms, vertexes);
+    }
+
+    @Test
+    public void testFarClusters() {
+        WorldGrid grid = new WorldGrid(CONFIG);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rooms.add(new Room(new Point(i % 5 * 6, i / 5 * 6, CONFIG), 4, 4, grid));
+            rooms.add(new Room(new Point(170 + i % 5 * 6, 80 + i / 5 * 6, CONFIG), 4, 4, grid));
+        }
+        List<Room[]> vertexes = new KruskalForMst(rooms, CONFIG).generateVertexes();
+        assertEquals(rooms.size() - 1, vertexes.size());
+        assertConnected(rooms, vertexes);
+    }
+}
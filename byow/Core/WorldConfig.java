@@ -0,0 +1,149 @@
+package byow.Core;
+
+import java.io.Serializable;
+
+/**
+ * This class represents the dimensions of a world and the index system of its tiles.
+ * The tiles are indexed column by column, so iPoint = x * height + y.
+ */
+public class WorldConfig implements Serializable {
+
+    private static final long serialVersionUID = -5688101960321718830L;
+    /**
+     * The config of the default frame that fits the window.
+     */
+    public static final WorldConfig DEFAULT = new WorldConfig(Engine.WIDTH, Engine.HEIGHT);
+    /**
+     * The width of the world.
+     */
+    private final int width;
+    /**
+     * The height of the world.
+     */
+    private final int height;
+
+    /**
+     * Create a config by the given width and height.
+     */
+    public WorldConfig(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("The width and height must be positive.");
+        }
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The world is too large: " + width + " x " + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Return the width of the world.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Return the height of the world.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Return the count of tiles in the world.
+     */
+    public int getVolume() {
+        return this.width * this.height;
+    }
+
+    /**
+     * Return the index value of the given X and Y.
+     */
+    public int xyToIPoint(int x, int y) {
+        return x * this.height + y;
+    }
+
+    /**
+     * Return the X of the given index value.
+     */
+    public int iPointToX(int iPoint) {
+        return iPoint / this.height;
+    }
+
+    /**
+     * Return the Y of the given index value.
+     */
+    public int iPointToY(int iPoint) {
+        return iPoint % this.height;
+    }
+
+    /**
+     * Check if the X and Y is in the world.
+     */
+    public boolean checkBound(int x, int y) {
+        return x >= 0 && x < this.width && y >= 0 && y < this.height;
+    }
+
+    /**
+     * Return the shifts of the iPoint to the neighbours by the sequence NSWE, that is the table to keep by a search.
+     */
+    public int[] getNeighbourOffsets() {
+        int[] offsets = new int[Point.DIRECTION_INIT];
+        for (int direction = Point.NORTH; direction < Point.DIRECTION_INIT; direction++) {
+            offsets[direction] = Point.getDx(direction) * this.height + Point.getDy(direction);
+        }
+        return offsets;
+    }
+
+    /**
+     * Return the mask of the directions whose neighbours of the iPoint are in the world,
+     * the bit of a direction is 1 << direction. It costs a division, the same as iPointToY.
+     */
+    public int getBorderMask(int iPoint) {
+        int y = iPoint % this.height;
+        int mask = 0;
+        if (y < this.height - 1) {
+            mask |= 1 << Point.NORTH;
+        }
+        if (y > 0) {
+            mask |= 1 << Point.SOUTH;
+        }
+        if (iPoint >= this.height) {
+            mask |= 1 << Point.WEST;
+        }
+        if (iPoint < getVolume() - this.height) {
+            mask |= 1 << Point.EAST;
+        }
+        return mask;
+    }
+
+    /**
+     * Return the iPoint of the neighbour of the iPoint in the direction, or -1 if it is out of the world.
+     */
+    public int getNeighbour(int iPoint, int direction) {
+        if ((getBorderMask(iPoint) & (1 << direction)) == 0) {
+            return -1;
+        }
+        return iPoint + Point.getDx(direction) * this.height + Point.getDy(direction);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || o.getClass() != WorldConfig.class) {
+            return false;
+        }
+        WorldConfig c = (WorldConfig) o;
+        return this.width == c.width && this.height == c.height;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.width + this.height;
+    }
+
+    @Override
+    public String toString() {
+        return this.width + " x " + this.height;
+    }
+}
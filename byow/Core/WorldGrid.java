@@ -0,0 +1,495 @@
+package byow.Core;
+
+import byow.Core.World.Construction;
+import byow.TileEngine.TETile;
+import byow.TileEngine.Tileset;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class saves the properties of every tile of a frame in primitive arrays.
+ * The cell at iPoint is described by the same index of every array.
+ */
+public class WorldGrid implements WorldMap, WorldStore, Serializable {
+    private static final long serialVersionUID = 4808275743230207138L;
+    public static final int CONSTRUCTION_TYPE_ROOM = 0;
+    public static final int CONSTRUCTION_TYPE_HALLWAY = 1;
+    public static final int CONSTRUCTION_TYPE_NOTHING = 2;
+    /**
+     * The construction id of a tile which is not a part of any construction.
+     */
+    public static final int NO_CONSTRUCTION = -1;
+    /**
+     * The first value of a content hash, that is the offset basis of FNV-1a.
+     */
+    public static final long HASH_BASIS = 0xcbf29ce484222325L;
+    /**
+     * The config of the world.
+     */
+    private final WorldConfig config;
+    /**
+     * The type of every tile, e.g. a wall or a brick.
+     */
+    private byte[] types;
+    /**
+     * The construction type of every tile, e.g. a room or a hallway.
+     */
+    private byte[] constructionTypes;
+    /**
+     * The id of the construction that every tile belongs to.
+     */
+    private int[] constructionIds;
+    /**
+     * True if the types are shared with a snapshot, so they are copied before they are changed.
+     */
+    private transient boolean isTypesShared;
+    /**
+     * True if the construction types and ids are shared with a snapshot, so they are copied before they are changed.
+     */
+    private transient boolean isConstructionsShared;
+    /**
+     * The next id for a new construction.
+     */
+    private int nextConstructionId;
+
+    /**
+     * Create an empty grid with the given config.
+     */
+    public WorldGrid(WorldConfig config) {
+        int volume = config.getVolume();
+        this.config = config;
+        this.types = new byte[volume];
+        this.constructionTypes = new byte[volume];
+        this.constructionIds = new int[volume];
+        this.nextConstructionId = 0;
+        Arrays.fill(types, (byte) Construction.NOTHING);
+        Arrays.fill(constructionTypes, (byte) CONSTRUCTION_TYPE_NOTHING);
+        Arrays.fill(constructionIds, NO_CONSTRUCTION);
+    }
+
+    /**
+     * Create a grid that shares the arrays of the given grid.
+     */
+    private WorldGrid(WorldGrid grid) {
+        this.config = grid.config;
+        this.types = grid.types;
+        this.constructionTypes = grid.constructionTypes;
+        this.constructionIds = grid.constructionIds;
+        this.nextConstructionId = grid.nextConstructionId;
+        this.isTypesShared = true;
+        this.isConstructionsShared = true;
+    }
+
+    /**
+     * Return a snapshot of the grid, that is not changed by the later changes of this grid.
+     * The arrays are shared and copied by the grid that changes them first, so a snapshot takes no time,
+     * and only the types are copied when a gate is unlocked. It must not be taken while the grid is created.
+     */
+    public WorldGrid snapshot() {
+        isTypesShared = true;
+        isConstructionsShared = true;
+        return new WorldGrid(this);
+    }
+
+    /**
+     * Copy the types if they are shared with a snapshot.
+     */
+    private void unshareTypes() {
+        if (isTypesShared) {
+            types = types.clone();
+            isTypesShared = false;
+        }
+    }
+
+    /**
+     * Copy the construction types and ids if they are shared with a snapshot.
+     */
+    private void unshareConstructions() {
+        if (isConstructionsShared) {
+            constructionTypes = constructionTypes.clone();
+            constructionIds = constructionIds.clone();
+            isConstructionsShared = false;
+        }
+    }
+
+    /**
+     * Return the config of the grid.
+     */
+    @Override
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Return the volume of the grid.
+     */
+    public int getVolume() {
+        return types.length;
+    }
+
+    /**
+     * Return the types of the tiles by iPoint, that cannot be changed by the buffer.
+     * The buffer shares the array of the grid, so take it of a snapshot to keep the tiles of now.
+     */
+    public ByteBuffer getTypes() {
+        return ByteBuffer.wrap(types).asReadOnlyBuffer();
+    }
+
+    /**
+     * Return the construction types of the tiles by iPoint, that cannot be changed by the buffer,
+     * the same as getTypes.
+     */
+    public ByteBuffer getConstructionTypes() {
+        return ByteBuffer.wrap(constructionTypes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Return a new id for a construction.
+     */
+    public int newConstructionId() {
+        return nextConstructionId++;
+    }
+
+    /**
+     * Reserve the given count of ids for the constructions that are created in another grid,
+     * and return the first one.
+     */
+    @Override
+    public int newConstructionIds(int count) {
+        int first = nextConstructionId;
+        nextConstructionId += count;
+        return first;
+    }
+
+    /**
+     * Return the count of ids that were given to constructions.
+     */
+    @Override
+    public int getConstructionCount() {
+        return nextConstructionId;
+    }
+
+    /**
+     * Copy all the tiles of a part of the world to the given X and Y of southwest corner,
+     * the ids of the constructions of the part are moved by idOffset.
+     * The parts that do not overlap can be copied by different threads at the same time.
+     */
+    @Override
+    public void copyFrom(WorldGrid part, int x, int y, int idOffset) {
+        WorldConfig partConfig = part.getConfig();
+        checkPart(config, partConfig, x, y);
+        unshareTypes();
+        unshareConstructions();
+        int partHeight = partConfig.getHeight();
+        for (int i = 0; i < partConfig.getWidth(); i++) {
+            int from = partConfig.xyToIPoint(i, 0);
+            int to = config.xyToIPoint(x + i, y);
+            System.arraycopy(part.types, from, types, to, partHeight);
+            System.arraycopy(part.constructionTypes, from, constructionTypes, to, partHeight);
+            for (int j = 0; j < partHeight; j++) {
+                int id = part.constructionIds[from + j];
+                constructionIds[to + j] = id == NO_CONSTRUCTION ? NO_CONSTRUCTION : id + idOffset;
+            }
+        }
+    }
+
+    /**
+     * Copy the tiles from the given X and Y of southwest corner to all the tiles of a part.
+     */
+    @Override
+    public void copyTo(WorldGrid part, int x, int y) {
+        WorldConfig partConfig = part.getConfig();
+        checkPart(config, partConfig, x, y);
+        part.unshareTypes();
+        part.unshareConstructions();
+        int partHeight = partConfig.getHeight();
+        for (int i = 0; i < partConfig.getWidth(); i++) {
+            int from = config.xyToIPoint(x + i, y);
+            int to = partConfig.xyToIPoint(i, 0);
+            System.arraycopy(types, from, part.types, to, partHeight);
+            System.arraycopy(constructionTypes, from, part.constructionTypes, to, partHeight);
+            System.arraycopy(constructionIds, from, part.constructionIds, to, partHeight);
+        }
+    }
+
+    /**
+     * Throws IllegalArgumentException if a part at the given X and Y of southwest corner is out of the world.
+     */
+    static void checkPart(WorldConfig config, WorldConfig partConfig, int x, int y) {
+        if (!config.checkBound(x, y)
+                || !config.checkBound(x + partConfig.getWidth() - 1, y + partConfig.getHeight() - 1)) {
+            throw new IllegalArgumentException("The part " + partConfig + " is out of the grid " + config + ".");
+        }
+    }
+
+    /**
+     * Write the grid to the buffer. After the config and the next construction id, the types of the tiles
+     * in the order of iPoint are written as runs of the same type, by the length and the type.
+     * Then the table of the construction type of every construction id is written as runs, and the
+     * construction ids of the tiles are written as runs of the same id, by the length and the id + 1.
+     * A construction has only one construction type, so the construction types of the tiles are not written.
+     */
+    public void writeTo(SaveBuffer buffer) {
+        buffer.putVarInt(config.getWidth());
+        buffer.putVarInt(config.getHeight());
+        buffer.putVarInt(nextConstructionId);
+        writeRuns(buffer, types, types.length);
+        byte[] typesOfIds = getConstructionTypesOfIds();
+        writeRuns(buffer, typesOfIds, typesOfIds.length);
+        int start = 0;
+        for (int i = 1; i <= constructionIds.length; i++) {
+            if (i == constructionIds.length || constructionIds[i] != constructionIds[start]) {
+                buffer.putVarInt(i - start);
+                buffer.putVarInt(constructionIds[start] + 1);
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * Return the construction type of every construction id, that is CONSTRUCTION_TYPE_NOTHING if the
+     * construction has no tile. Throws IllegalStateException if a construction has 2 construction types.
+     */
+    private byte[] getConstructionTypesOfIds() {
+        byte[] typesOfIds = new byte[nextConstructionId];
+        boolean[] isKnown = new boolean[nextConstructionId];
+        Arrays.fill(typesOfIds, (byte) CONSTRUCTION_TYPE_NOTHING);
+        for (int i = 0; i < constructionIds.length; i++) {
+            int id = constructionIds[i];
+            if (id == NO_CONSTRUCTION) {
+                if (constructionTypes[i] != CONSTRUCTION_TYPE_NOTHING) {
+                    throw new IllegalStateException("The tile " + i + " has a construction type but no construction.");
+                }
+            } else if (!isKnown[id]) {
+                typesOfIds[id] = constructionTypes[i];
+                isKnown[id] = true;
+            } else if (typesOfIds[id] != constructionTypes[i]) {
+                throw new IllegalStateException("The construction " + id + " has 2 construction types.");
+            }
+        }
+        return typesOfIds;
+    }
+
+    /**
+     * Write the first count of values as runs of the same value, by the length and the value.
+     */
+    private static void writeRuns(SaveBuffer buffer, byte[] values, int count) {
+        int start = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || values[i] != values[start]) {
+                buffer.putVarInt(i - start);
+                buffer.putByte(values[start]);
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * Read the runs that were written by writeRuns into the first count of values.
+     */
+    private static void readRuns(SaveBuffer buffer, byte[] values, int count) {
+        for (int start = 0, end; start < count; start = end) {
+            end = readRunEnd(buffer, start, count);
+            Arrays.fill(values, start, end, buffer.getByte());
+        }
+    }
+
+    /**
+     * Return a grid that was written to the buffer by writeTo.
+     */
+    public static WorldGrid readFrom(SaveBuffer buffer) {
+        WorldGrid grid = new WorldGrid(new WorldConfig(buffer.getVarInt(), buffer.getVarInt()));
+        grid.nextConstructionId = buffer.getVarInt();
+        int volume = grid.types.length;
+        readRuns(buffer, grid.types, volume);
+        byte[] typesOfIds = new byte[grid.nextConstructionId];
+        readRuns(buffer, typesOfIds, typesOfIds.length);
+        for (int start = 0, end; start < volume; start = end) {
+            end = readRunEnd(buffer, start, volume);
+            int id = buffer.getVarInt() - 1;
+            if (id >= grid.nextConstructionId) {
+                throw new IllegalArgumentException("The save file has a broken construction id at " + start + ".");
+            }
+            if (id != NO_CONSTRUCTION) {
+                Arrays.fill(grid.constructionIds, start, end, id);
+                Arrays.fill(grid.constructionTypes, start, end, typesOfIds[id]);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Read the length of a run from the start, and return the end of the run.
+     */
+    private static int readRunEnd(SaveBuffer buffer, int start, int volume) {
+        int length = buffer.getVarInt();
+        if (length == 0 || length > volume - start) {
+            throw new IllegalArgumentException("The save file has a broken run of tiles at " + start + ".");
+        }
+        return start + length;
+    }
+
+    /**
+     * Return the type of a tile.
+     */
+    public int getType(int iPoint) {
+        return types[iPoint];
+    }
+
+    /**
+     * Return the construction type of a tile.
+     */
+    public int getConstructionType(int iPoint) {
+        return constructionTypes[iPoint];
+    }
+
+    /**
+     * Return the construction id of a tile.
+     */
+    public int getConstructionId(int iPoint) {
+        return constructionIds[iPoint];
+    }
+
+    /**
+     * Return true if the tile is not a part of any construction.
+     */
+    public boolean isEmpty(int iPoint) {
+        return constructionTypes[iPoint] == CONSTRUCTION_TYPE_NOTHING;
+    }
+
+    /**
+     * Set the type of a tile.
+     */
+    public void setType(int iPoint, int type) {
+        unshareTypes();
+        types[iPoint] = (byte) type;
+    }
+
+    @Override
+    public boolean checkBound(int x, int y) {
+        return config.checkBound(x, y);
+    }
+
+    @Override
+    public int getType(int x, int y) {
+        return getType(config.xyToIPoint(x, y));
+    }
+
+    @Override
+    public int getConstructionType(int x, int y) {
+        return getConstructionType(config.xyToIPoint(x, y));
+    }
+
+    @Override
+    public void setType(int x, int y, int type) {
+        setType(config.xyToIPoint(x, y), type);
+    }
+
+    /**
+     * Return the FNV-1a hash of the size and the types of the tiles in the order of iPoint.
+     */
+    @Override
+    public long contentHash() {
+        long hash = hashStep(hashStep(HASH_BASIS, config.getWidth()), config.getHeight());
+        for (byte type : types) {
+            hash = hashStep(hash, type);
+        }
+        return hash;
+    }
+
+    /**
+     * Return the hash after a value, a step of FNV-1a.
+     */
+    public static long hashStep(long hash, long value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
+
+    /**
+     * Return the index of the brick that is nearest to the start index,
+     * look for it downward first and then upward. Return -1 if there is no brick.
+     */
+    public int findBrick(int start) {
+        for (int i = start; i >= 0; i--) {
+            if (types[i] == Construction.BRICKS) {
+                return i;
+            }
+        }
+        for (int i = start + 1; i < types.length; i++) {
+            if (types[i] == Construction.BRICKS) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Set the value of a tile.
+     */
+    public void setValue(int iPoint, int type, int constructionType, int constructionId) {
+        unshareTypes();
+        unshareConstructions();
+        types[iPoint] = (byte) type;
+        constructionTypes[iPoint] = (byte) constructionType;
+        constructionIds[iPoint] = constructionId;
+    }
+
+    /**
+     * Return the typeString of a tile.
+     */
+    public String getTypeString(int iPoint) {
+        return typeToString(getType(iPoint));
+    }
+
+    /**
+     * Return the constructionTypeString of a tile.
+     */
+    public String getConstructionTypeString(int iPoint) {
+        return constructionTypeToString(getConstructionType(iPoint));
+    }
+
+    /**
+     * Return the style of a tile.
+     */
+    public TETile getStyle(int iPoint) {
+        return typeToStyle(getType(iPoint));
+    }
+
+    /**
+     * Return the string of a type.
+     */
+    public static String typeToString(int type) {
+        return switch (type) {
+            case Construction.WALLS -> "Wall";
+            case Construction.BRICKS -> "Brick";
+            case Construction.GATES -> "Locked Gate";
+            case Construction.UNLOCKED_GATES -> "Unlocked Gate";
+            default -> "Nothing";
+        };
+    }
+
+    /**
+     * Return the string of a construction type.
+     */
+    public static String constructionTypeToString(int constructionType) {
+        return switch (constructionType) {
+            case CONSTRUCTION_TYPE_ROOM -> "Room";
+            case CONSTRUCTION_TYPE_HALLWAY -> "Hallway";
+            default -> "Empty";
+        };
+    }
+
+    /**
+     * Return the style of a type.
+     */
+    public static TETile typeToStyle(int type) {
+        return switch (type) {
+            case Construction.WALLS -> Construction.WALL_TILE;
+            case Construction.BRICKS -> Construction.BRICK_TILE;
+            case Construction.GATES -> Construction.GATE_TILE;
+            case Construction.UNLOCKED_GATES -> Construction.UNLOCKED_GATE_TILE;
+            default -> Tileset.NOTHING;
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package byow.Core;
+
+/**
+ * This interface is used to represent the tiles of a world by their X and Y.
+ */
+public interface WorldMap {
+    /**
+     * Return true if the X and Y is in the world.
+     */
+    boolean checkBound(int x, int y);
+
+    /**
+     * Return the type of a tile.
+     */
+    int getType(int x, int y);
+
+    /**
+     * Return the construction type of a tile.
+     */
+    int getConstructionType(int x, int y);
+
+    /**
+     * Set the type of a tile.
+     */
+    void setType(int x, int y, int type);
+
+    /**
+     * Return a 64-bit hash of the types of the tiles, that is the same for the worlds of the same tiles.
+     */
+    long contentHash();
+}
@@ -0,0 +1,36 @@
+package byow.Core;
+
+/**
+ * This interface is a world that is created by parts, the parts are WorldGrids on the heap that are copied
+ * in and out by rectangles, so the world itself is not required to fit on the heap, e.g. a MappedWorldGrid.
+ */
+public interface WorldStore {
+
+    /**
+     * Return the config of the world.
+     */
+    WorldConfig getConfig();
+
+    /**
+     * Reserve the given count of ids for the constructions that are created in a part, and return the first one.
+     */
+    int newConstructionIds(int count);
+
+    /**
+     * Return the count of ids that were given to constructions.
+     */
+    int getConstructionCount();
+
+    /**
+     * Copy all the tiles of a part to the given X and Y of southwest corner,
+     * the ids of the constructions of the part are moved by idOffset.
+     * The parts that do not overlap can be copied by different threads at the same time.
+     */
+    void copyFrom(WorldGrid part, int x, int y, int idOffset);
+
+    /**
+     * Copy the tiles from the given X and Y of southwest corner to all the tiles of a part,
+     * the ids of the constructions are not moved.
+     */
+    void copyTo(WorldGrid part, int x, int y);
+}
@@ -0,0 +1,213 @@
+package byow.Core;
+
+import byow.TileEngine.TETile;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class is a read-only view of a rectangle of a world at the end of a session, that is returned by
+ * Engine.interactWithInputString. The view is backed by a snapshot of the world, so the later changes of the game
+ * never change it, and reading it never changes the game. Two views are compared by their 64-bit content hash,
+ * that is only computed when it is asked for.
+ * A view of a finite world is all the world, a view of a chunked world is the part on the screen.
+ */
+public class WorldView {
+
+    /**
+     * The snapshot of the world of the view, that gives the content hash.
+     */
+    private final WorldMap world;
+    /**
+     * The X and Y of the southwest corner of the view in the world.
+     */
+    private final int x;
+    private final int y;
+    /**
+     * The width and height of the view.
+     */
+    private final int width;
+    private final int height;
+    /**
+     * The types and the construction types of the tiles of the view by viewX * height + viewY, read-only.
+     */
+    private final ByteBuffer types;
+    private final ByteBuffer constructionTypes;
+    /**
+     * The X and Y of the player in the world, and true if the player was placed.
+     */
+    private final int xOfPlayer;
+    private final int yOfPlayer;
+    private final boolean hasPlayer;
+    /**
+     * The vision scope of the game, that is a part of the content hash.
+     */
+    private final int visionScope;
+    /**
+     * The content hash, that is valid when isHashed is true.
+     */
+    private long contentHash;
+    private volatile boolean isHashed;
+
+    /**
+     * Create a view of the given rectangle of the snapshot of a world, whose tiles are in the given buffers,
+     * with the player and the vision scope of the game.
+     */
+    WorldView(WorldMap world, int x, int y, int width, int height, ByteBuffer types, ByteBuffer constructionTypes,
+              int xOfPlayer, int yOfPlayer, boolean hasPlayer, int visionScope) {
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.types = types;
+        this.constructionTypes = constructionTypes;
+        this.xOfPlayer = xOfPlayer;
+        this.yOfPlayer = yOfPlayer;
+        this.hasPlayer = hasPlayer;
+        this.visionScope = visionScope;
+    }
+
+    /**
+     * Return a view of the given rectangle of the snapshot of a world, the tiles are copied from the snapshot.
+     */
+    static WorldView copyOf(WorldMap world, int x, int y, int width, int height,
+                            int xOfPlayer, int yOfPlayer, boolean hasPlayer, int visionScope) {
+        byte[] types = new byte[width * height];
+        byte[] constructionTypes = new byte[width * height];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                types[i * height + j] = (byte) world.getType(x + i, y + j);
+                constructionTypes[i * height + j] = (byte) world.getConstructionType(x + i, y + j);
+            }
+        }
+        return new WorldView(world, x, y, width, height, ByteBuffer.wrap(types).asReadOnlyBuffer(),
+                ByteBuffer.wrap(constructionTypes).asReadOnlyBuffer(), xOfPlayer, yOfPlayer, hasPlayer, visionScope);
+    }
+
+    /**
+     * Return the width of the view.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Return the height of the view.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Return the X of the southwest corner of the view in the world.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Return the Y of the southwest corner of the view in the world.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Return the types of all the tiles of the view by viewX * getHeight() + viewY, that cannot be changed.
+     * The buffer is a new one of the same tiles, so its position is not shared with other callers.
+     */
+    public ByteBuffer getTypes() {
+        return types.duplicate();
+    }
+
+    /**
+     * Return the construction types of all the tiles of the view, the same as getTypes.
+     */
+    public ByteBuffer getConstructionTypes() {
+        return constructionTypes.duplicate();
+    }
+
+    /**
+     * Return the type of the tile at the X and Y of the view, e.g. Construction.BRICKS.
+     */
+    public int getType(int viewX, int viewY) {
+        checkBound(viewX, viewY);
+        return types.get(viewX * height + viewY);
+    }
+
+    /**
+     * Return the construction type of the tile at the X and Y of the view.
+     */
+    public int getConstructionType(int viewX, int viewY) {
+        checkBound(viewX, viewY);
+        return constructionTypes.get(viewX * height + viewY);
+    }
+
+    /**
+     * Throw if the X and Y is out of the view.
+     */
+    private void checkBound(int viewX, int viewY) {
+        if (viewX < 0 || viewX >= width || viewY < 0 || viewY >= height) {
+            throw new IllegalArgumentException("(" + viewX + ", " + viewY + ") is out of the view.");
+        }
+    }
+
+    /**
+     * Return true if the player was placed.
+     */
+    public boolean hasPlayer() {
+        return hasPlayer;
+    }
+
+    /**
+     * Return the X of the player in the view, it may be out of the view.
+     */
+    public int getPlayerX() {
+        return xOfPlayer - x;
+    }
+
+    /**
+     * Return the Y of the player in the view, it may be out of the view.
+     */
+    public int getPlayerY() {
+        return yOfPlayer - y;
+    }
+
+    /**
+     * Return the 64-bit hash of the game: the tiles of the world, the player and the vision scope,
+     * the same as Game.contentHash. It is computed by the first call.
+     */
+    public long contentHash() {
+        if (!isHashed) {
+            contentHash = Game.contentHash(world, xOfPlayer, yOfPlayer, hasPlayer, visionScope);
+            isHashed = true;
+        }
+        return contentHash;
+    }
+
+    /**
+     * Return the tiles of the view with the player, that are created by every call.
+     */
+    public TETile[][] toTiles() {
+        TETile[][] tiles = new TETile[width][height];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                tiles[i][j] = WorldGrid.typeToStyle(types.get(i * height + j));
+            }
+        }
+        int playerX = getPlayerX();
+        int playerY = getPlayerY();
+        if (hasPlayer && playerX >= 0 && playerX < width && playerY >= 0 && playerY < height) {
+            tiles[playerX][playerY] = Game.PLAYER_TILE;
+        }
+        return tiles;
+    }
+
+    /**
+     * Return the tiles of the view as characters, the top row first.
+     */
+    @Override
+    public String toString() {
+        return TETile.toString(toTiles());
+    }
+}
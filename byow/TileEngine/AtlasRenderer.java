@@ -0,0 +1,281 @@
+package byow.TileEngine;
+
+import javax.imageio.ImageIO;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A renderer that rasterises every TETile once into a glyph atlas, composes a frame by copying
+ * the pixels of the glyphs into an offscreen image, and presents the image by one draw call. The time of a
+ * frame does not depend on the font, so it is the same for a frame of any size.
+ * The tiles of Tileset are rasterised by initialize, and any other TETile, e.g. a colorVariant,
+ * is rasterised the first time it is rendered.
+ * The window is only opened when there is a display, the typed keys are read by KeyInput.
+ */
+public class AtlasRenderer implements TileRenderer {
+    private static final int TILE_SIZE = 16;
+    private static final Font TILE_FONT = new Font("Monaco", Font.BOLD, TILE_SIZE - 2);
+    private static final Font INFO_FONT = new Font("Monaco", Font.BOLD, 15);
+    private static final int INFO_HEIGHT = 5;
+    private static final TETile[] TILESET = {Tileset.AVATAR, Tileset.WALL, Tileset.FLOOR,
+        Tileset.NOTHING, Tileset.GRASS, Tileset.WATER, Tileset.FLOWER, Tileset.LOCKED_DOOR,
+        Tileset.UNLOCKED_DOOR, Tileset.SAND, Tileset.MOUNTAIN, Tileset.TREE};
+    private int width;
+    private int height;
+    // The glyphs in a row and their pixels, and the column of every TETile in the row.
+    private BufferedImage atlas;
+    private int[] atlasPixels;
+    private final Map<TETile, Integer> glyphs = new IdentityHashMap<>();
+    // The frame that is composed offscreen, and the window that presents it.
+    private BufferedImage screen;
+    private int[] screenPixels;
+    private JFrame window;
+    private JPanel panel;
+    // The tiles and the info in the offscreen frame, a tile is only copied again when its TETile changes.
+    private TETile[][] shown;
+    private String shownInfo;
+
+    /**
+     * Creates the offscreen frame of w by h tiles and the line of info, rasterises the tiles of
+     * Tileset into the atlas, and opens the window if there is a display.
+     * @param w width of the world in tiles
+     * @param h height of the world in tiles
+     */
+    @Override
+    public void initialize(int w, int h) {
+        this.width = w;
+        this.height = h + INFO_HEIGHT;
+        screen = new BufferedImage(width * TILE_SIZE, height * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        screenPixels = getPixels(screen);
+        atlas = new BufferedImage(TILE_SIZE * TILESET.length, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        atlasPixels = getPixels(atlas);
+        glyphs.clear();
+        for (TETile tile : TILESET) {
+            getGlyph(tile);
+        }
+        shown = null;
+        shownInfo = null;
+        if (!GraphicsEnvironment.isHeadless()) {
+            openWindow();
+        }
+    }
+
+    /**
+     * Opens the window, or resizes it to the offscreen frame.
+     */
+    private void openWindow() {
+        if (window == null) {
+            window = new JFrame("CS61B: THE GAME");
+            panel = new JPanel() {
+                @Override
+                protected void paintComponent(Graphics g) {
+                    synchronized (AtlasRenderer.this) {
+                        g.drawImage(screen, 0, 0, null);
+                    }
+                }
+            };
+            window.setContentPane(panel);
+            window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            window.setResizable(false);
+        }
+        panel.setPreferredSize(new Dimension(screen.getWidth(), screen.getHeight()));
+        window.pack();
+        window.setVisible(true);
+        window.requestFocus();
+    }
+
+    /**
+     * Returns the column of the glyph of the tile in the atlas, and rasterises the tile into a
+     * new column the first time. The atlas doubles its width when it is full.
+     */
+    private int getGlyph(TETile tile) {
+        Integer column = glyphs.get(tile);
+        if (column != null) {
+            return column;
+        }
+        column = glyphs.size();
+        if ((column + 1) * TILE_SIZE > atlas.getWidth()) {
+            BufferedImage larger = new BufferedImage(atlas.getWidth() * 2, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+            Graphics g = larger.getGraphics();
+            g.drawImage(atlas, 0, 0, null);
+            g.dispose();
+            atlas = larger;
+            atlasPixels = getPixels(atlas);
+        }
+        Graphics2D g = atlas.createGraphics();
+        g.translate(column * TILE_SIZE, 0);
+        g.setClip(0, 0, TILE_SIZE, TILE_SIZE);
+        if (!drawImage(g, tile)) {
+            drawCharacter(g, tile);
+        }
+        g.dispose();
+        glyphs.put(tile, column);
+        return column;
+    }
+
+    /**
+     * Returns the pixels of an image of TYPE_INT_RGB, a pixel at (x, y) is at x + y * width.
+     */
+    private static int[] getPixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Draws the image of the tile, returns false if it has no image or the image cannot be read.
+     */
+    private static boolean drawImage(Graphics2D g, TETile tile) {
+        if (tile.filepath() == null) {
+            return false;
+        }
+        try {
+            BufferedImage image = ImageIO.read(new File(tile.filepath()));
+            return image != null && g.drawImage(image, 0, 0, TILE_SIZE, TILE_SIZE, null);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Draws the background and the character of the tile at the center.
+     */
+    private static void drawCharacter(Graphics2D g, TETile tile) {
+        g.setColor(tile.backgroundColor());
+        g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(tile.textColor());
+        g.setFont(TILE_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        String text = Character.toString(tile.character());
+        g.drawString(text, (TILE_SIZE - metrics.stringWidth(text)) / 2,
+                (TILE_SIZE - metrics.getHeight()) / 2 + metrics.getAscent());
+    }
+
+    /**
+     * Copies every tile that changed into the offscreen frame, draws the info if it changed,
+     * and presents the frame. The first frame, or a frame of another size, clears the screen.
+     * @param world the 2D TETile[][] array to render
+     * @param info the info above the world
+     */
+    @Override
+    public synchronized void renderFrame(TETile[][] world, String info) {
+        int numXTiles = world.length;
+        int numYTiles = world[0].length;
+        if (!isShown(world)) {
+            Graphics2D g = screen.createGraphics();
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, screen.getWidth(), screen.getHeight());
+            g.dispose();
+            shown = new TETile[numXTiles][numYTiles];
+            shownInfo = null;
+        }
+        // Row by row, so the copied pixels of the next tile are next to the last ones.
+        for (int y = numYTiles - 1; y >= 0; y -= 1) {
+            for (int x = 0; x < numXTiles; x += 1) {
+                drawTile(world, x, y);
+            }
+        }
+        drawInfo(info);
+        present();
+    }
+
+    /**
+     * Copies only the given tiles that changed into the offscreen frame, draws the info if it
+     * changed, and presents the frame. If the last frame was not the same size, renders the whole frame.
+     * @param world the 2D TETile[][] array to render
+     * @param info the info above the world
+     * @param tiles the indices of the tiles to render
+     * @param count the count of the indices
+     */
+    @Override
+    public synchronized void renderTiles(TETile[][] world, String info, int[] tiles, int count) {
+        if (!isShown(world)) {
+            renderFrame(world, info);
+            return;
+        }
+        int numYTiles = world[0].length;
+        for (int i = 0; i < count; i += 1) {
+            drawTile(world, tiles[i] / numYTiles, tiles[i] % numYTiles);
+        }
+        drawInfo(info);
+        present();
+    }
+
+    /**
+     * Returns true if a frame of the same size as the world is on the screen.
+     */
+    private boolean isShown(TETile[][] world) {
+        return shown != null && shown.length == world.length && shown[0].length == world[0].length;
+    }
+
+    /**
+     * Copies the pixels of the glyph of the tile at the position row by row, if it is not the
+     * TETile on the screen. The Y of the world goes up, and the Y of the image goes down.
+     */
+    private void drawTile(TETile[][] world, int x, int y) {
+        TETile tile = world[x][y];
+        if (tile == null) {
+            throw new IllegalArgumentException("Tile at position x=" + x + ", y=" + y
+                    + " is null.");
+        }
+        if (tile != shown[x][y]) {
+            int source = getGlyph(tile) * TILE_SIZE;
+            int atlasWidth = atlas.getWidth();
+            int screenWidth = screen.getWidth();
+            int target = (height - 1 - y) * TILE_SIZE * screenWidth + x * TILE_SIZE;
+            for (int row = 0; row < TILE_SIZE; row += 1) {
+                System.arraycopy(atlasPixels, source + row * atlasWidth,
+                        screenPixels, target + row * screenWidth, TILE_SIZE);
+            }
+            shown[x][y] = tile;
+        }
+    }
+
+    /**
+     * Clears the top 2 lines of the frame and draws the info between them, if it changed.
+     */
+    private void drawInfo(String info) {
+        if (info.equals(shownInfo)) {
+            return;
+        }
+        Graphics2D g = screen.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, screen.getWidth(), 2 * TILE_SIZE);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.setFont(INFO_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString(info, 0, TILE_SIZE + (metrics.getAscent() - metrics.getDescent()) / 2);
+        g.dispose();
+        shownInfo = info;
+    }
+
+    /**
+     * Asks the window to draw the offscreen frame, does nothing if there is no window.
+     */
+    private void present() {
+        if (panel != null) {
+            panel.repaint();
+        }
+    }
+
+    /**
+     * Returns the offscreen frame, e.g. to save a screenshot.
+     */
+    public BufferedImage getScreen() {
+        return screen;
+    }
+}
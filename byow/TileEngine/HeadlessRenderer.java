@@ -0,0 +1,166 @@
+package byow.TileEngine;
+
+/**
+ * A renderer that never opens a window. It keeps the last frame in memory as arrays of the
+ * characters and the colors of the tiles, so a frame can be inspected by tests and tools,
+ * and a game can run on a machine without a display.
+ * A tile at (x, y) is at the index x * height + y of the arrays, the same as renderTiles.
+ */
+public class HeadlessRenderer implements TileRenderer {
+    private int width;
+    private int height;
+    private char[] characters;
+    // The colors of the tiles as RGB values.
+    private int[] textColors;
+    private int[] backgroundColors;
+    private String info;
+    // The count of frames rendered since initialize.
+    private int frameCount;
+
+    /**
+     * Creates an empty frame of w by h tiles.
+     * @param w width of the world in tiles
+     * @param h height of the world in tiles
+     */
+    @Override
+    public void initialize(int w, int h) {
+        this.width = w;
+        this.height = h;
+        this.characters = new char[w * h];
+        this.textColors = new int[w * h];
+        this.backgroundColors = new int[w * h];
+        this.info = "";
+        this.frameCount = 0;
+    }
+
+    /**
+     * Keeps every tile of the 2d array and the info, resizes the frame to the world if needed.
+     * @param world the 2D TETile[][] array to render
+     * @param info the info above the world
+     */
+    @Override
+    public void renderFrame(TETile[][] world, String info) {
+        if (world.length != width || world[0].length != height) {
+            int count = frameCount;
+            initialize(world.length, world[0].length);
+            frameCount = count;
+        }
+        for (int x = 0; x < width; x += 1) {
+            for (int y = 0; y < height; y += 1) {
+                keepTile(world, x, y);
+            }
+        }
+        this.info = info;
+        frameCount += 1;
+    }
+
+    /**
+     * Keeps only the given tiles of the 2d array and the info. If the frame is not the same size,
+     * keeps the whole frame.
+     * @param world the 2D TETile[][] array to render
+     * @param info the info above the world
+     * @param tiles the indices of the tiles to render
+     * @param count the count of the indices
+     */
+    @Override
+    public void renderTiles(TETile[][] world, String info, int[] tiles, int count) {
+        if (world.length != width || world[0].length != height) {
+            renderFrame(world, info);
+            return;
+        }
+        for (int i = 0; i < count; i += 1) {
+            keepTile(world, tiles[i] / height, tiles[i] % height);
+        }
+        this.info = info;
+        frameCount += 1;
+    }
+
+    /**
+     * Keeps the character and the colors of the tile at the position.
+     */
+    private void keepTile(TETile[][] world, int x, int y) {
+        TETile tile = world[x][y];
+        if (tile == null) {
+            throw new IllegalArgumentException("Tile at position x=" + x + ", y=" + y
+                    + " is null.");
+        }
+        int i = x * height + y;
+        characters[i] = tile.character();
+        textColors[i] = tile.textColor().getRGB();
+        backgroundColors[i] = tile.backgroundColor().getRGB();
+    }
+
+    /**
+     * Returns the width of the frame in tiles.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the frame in tiles.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the character of the tile at the position.
+     */
+    public char getCharacter(int x, int y) {
+        return characters[index(x, y)];
+    }
+
+    /**
+     * Returns the RGB value of the text color of the tile at the position.
+     */
+    public int getTextColor(int x, int y) {
+        return textColors[index(x, y)];
+    }
+
+    /**
+     * Returns the RGB value of the background color of the tile at the position.
+     */
+    public int getBackgroundColor(int x, int y) {
+        return backgroundColors[index(x, y)];
+    }
+
+    /**
+     * Returns the info of the last frame.
+     */
+    public String getInfo() {
+        return info;
+    }
+
+    /**
+     * Returns the count of frames rendered since initialize.
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns the index of the position, throws if it is out of the frame.
+     */
+    private int index(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IllegalArgumentException("Position x=" + x + ", y=" + y + " is out of the frame.");
+        }
+        return x * height + y;
+    }
+
+    /**
+     * Returns the characters of the frame, the top row first, the same as TETile.toString.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int y = height - 1; y >= 0; y -= 1) {
+            for (int x = 0; x < width; x += 1) {
+                sb.append(characters[x * height + y]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package byow.TileEngine;
+
+/**
+ * A renderer that draws nothing and keeps nothing, for the games that only need their state,
+ * e.g. a batch of simulated games.
+ */
+public class NullRenderer implements TileRenderer {
+
+    @Override
+    public void initialize(int w, int h) {
+    }
+
+    @Override
+    public void renderFrame(TETile[][] world, String info) {
+    }
+
+    @Override
+    public void renderTiles(TETile[][] world, String info, int[] tiles, int count) {
+    }
+}
@@ -0,0 +1,170 @@
+package byow.TileEngine;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A renderer that draws the frames of another renderer on its own thread, so a slow frame never blocks
+ * the input or the logic of the game. A frame is copied into an immutable snapshot and handed to the
+ * thread by an AtomicReference; the thread draws only the latest snapshot, so the frames that came while it
+ * was drawing are skipped. The thread finds the changed tiles by the last snapshot it drew, since the
+ * changed tiles of the skipped frames are drawn too. All the calls of the other renderer are made by the thread.
+ */
+public class RenderThread implements TileRenderer {
+    /**
+     * Gets the numbers of the frames when they are handed to the thread and when they are drawn,
+     * e.g. to measure the time from a key to its frame on the screen.
+     */
+    public interface FrameListener {
+        /**
+         * Called by the caller thread when the frame of the number is handed to the thread.
+         */
+        void frameHanded(long frame);
+
+        /**
+         * Called by the thread when the frame of the number is drawn, the frames before it are drawn or skipped.
+         */
+        void frameDrawn(long frame);
+    }
+
+    // A frame that is never changed after it is handed to the thread, and its number.
+    private record Snapshot(TETile[][] tiles, String info, long frame) {
+    }
+
+    private final TileRenderer renderer;
+    private final FrameListener listener;
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>();
+    private final Thread thread;
+    private volatile boolean isRunning;
+    private volatile long frameCount;
+    // The count of the frames handed to the thread, only used by the caller thread.
+    private long handedCount;
+    // The last drawn snapshot and the changed tiles since it, only used by the thread.
+    private TETile[][] shown;
+    private int[] changed;
+
+    /**
+     * Starts the thread that draws the frames by the given renderer.
+     * @param renderer the renderer that draws the frames
+     */
+    public RenderThread(TileRenderer renderer) {
+        this(renderer, null);
+    }
+
+    /**
+     * Starts the thread that draws the frames by the given renderer, and tells the listener about the frames.
+     * @param renderer the renderer that draws the frames
+     * @param listener the listener of the frames, or null
+     */
+    public RenderThread(TileRenderer renderer, FrameListener listener) {
+        this.renderer = renderer;
+        this.listener = listener;
+        this.isRunning = true;
+        this.thread = new Thread(this::run, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The screen is opened by the thread before its first frame, and again when the size of a frame changes.
+     */
+    @Override
+    public void initialize(int w, int h) {
+    }
+
+    @Override
+    public void renderFrame(TETile[][] world, String info) {
+        TETile[][] tiles = new TETile[world.length][];
+        for (int x = 0; x < world.length; x++) {
+            tiles[x] = world[x].clone();
+        }
+        handedCount++;
+        if (listener != null) {
+            listener.frameHanded(handedCount);
+        }
+        latest.set(new Snapshot(tiles, info, handedCount));
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Hands the whole frame to the thread, that finds the changed tiles itself.
+     */
+    @Override
+    public void renderTiles(TETile[][] world, String info, int[] tiles, int count) {
+        renderFrame(world, info);
+    }
+
+    /**
+     * Returns the count of the frames that the thread drew.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Draws the latest snapshot, and waits when there is none.
+     * When the thread is stopped, the snapshot that came before close is drawn.
+     */
+    private void run() {
+        while (isRunning) {
+            if (!drawLatest()) {
+                LockSupport.park(this);
+            }
+        }
+        drawLatest();
+    }
+
+    /**
+     * Draws the latest snapshot, returns false if there is none.
+     */
+    private boolean drawLatest() {
+        Snapshot snapshot = latest.getAndSet(null);
+        if (snapshot == null) {
+            return false;
+        }
+        draw(snapshot);
+        frameCount++;
+        if (listener != null) {
+            listener.frameDrawn(snapshot.frame());
+        }
+        return true;
+    }
+
+    /**
+     * Draws the snapshot, only its tiles that changed since the last snapshot are drawn.
+     */
+    private void draw(Snapshot snapshot) {
+        TETile[][] tiles = snapshot.tiles();
+        int w = tiles.length;
+        int h = tiles[0].length;
+        if (shown == null || shown.length != w || shown[0].length != h) {
+            renderer.initialize(w, h);
+            renderer.renderFrame(tiles, snapshot.info());
+            changed = new int[w * h];
+        } else {
+            int count = 0;
+            for (int x = 0; x < w; x++) {
+                for (int y = 0; y < h; y++) {
+                    if (tiles[x][y] != shown[x][y]) {
+                        changed[count++] = x * h + y;
+                    }
+                }
+            }
+            renderer.renderTiles(tiles, snapshot.info(), changed, count);
+        }
+        shown = tiles;
+    }
+
+    /**
+     * Stops the thread and waits until it has drawn the latest snapshot.
+     */
+    public void close() {
+        isRunning = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -12,12 +12,21 @@ import java.awt.Font;
  * messing with this renderer, unless you're trying to do something fancy like
  * allowing scrolling of the screen or tracking the avatar or something similar.
  */
-public class TERenderer {
+public class TERenderer implements TileRenderer {
     private static final int TILE_SIZE = 16;
+    private static final Font TILE_FONT = new Font("Monaco", Font.BOLD, TILE_SIZE - 2);
+    private static final Font INFO_FONT = new Font("Monaco", Font.BOLD, 15);
+    // The rows of the window above the world that are kept for the info.
+    private static final int INFO_HEIGHT = 5;
+    // The rows at the top of the window that are cleared for the info.
+    private static final int INFO_LINES = 2;
     private int width;
     private int height;
     private int xOffset;
     private int yOffset;
+    // The tiles and the info on the screen, a tile is only drawn again when its TETile changes.
+    private TETile[][] shown;
+    private String shownInfo;
 
     /**
      * Same functionality as the other initialization method. The only difference is that the xOff
@@ -30,12 +39,11 @@ public class TERenderer {
      */
     public void initialize(int w, int h, int xOff, int yOff) {
         this.width = w;
-        this.height = h + 5;
+        this.height = h + INFO_HEIGHT;
         this.xOffset = xOff;
         this.yOffset = yOff;
         StdDraw.setCanvasSize(width * TILE_SIZE, height * TILE_SIZE);
-        Font font = new Font("Monaco", Font.BOLD, TILE_SIZE - 2);
-        StdDraw.setFont(font);      
+        StdDraw.setFont(TILE_FONT);
         StdDraw.setXscale(0, width);
         StdDraw.setYscale(0, height);
 
@@ -43,6 +51,16 @@ public class TERenderer {
 
         StdDraw.enableDoubleBuffering();
         StdDraw.show();
+        invalidate();
+    }
+
+    /**
+     * Forgets what is on the screen, so the next renderFrame draws every tile again.
+     * Call it after drawing on StdDraw by other code.
+     */
+    public void invalidate() {
+        shown = null;
+        shownInfo = null;
     }
 
     /**
@@ -58,6 +76,7 @@ public class TERenderer {
      * @param w width of the window in tiles
      * @param h height of the window in tiles.
      */
+    @Override
     public void initialize(int w, int h) {
         initialize(w, h, 0, 0);
     }
@@ -82,26 +101,95 @@ public class TERenderer {
      * This method assumes that the xScale and yScale have been set such that the max x
      * value is the width of the screen in tiles, and the max y value is the height of
      * the screen in tiles.
+     *
+     * The renderer keeps the TETile of every position that is on the screen, so only the
+     * positions whose TETile changed since the last frame are drawn, and the info is only
+     * drawn when it changed. The whole screen is only cleared by the first frame.
      * @param world the 2D TETile[][] array to render
      */
+    @Override
     public void renderFrame(TETile[][] world, String info) {
         int numXTiles = world.length;
         int numYTiles = world[0].length;
-        StdDraw.clear(new Color(0, 0, 0));
+        if (!isShown(world)) {
+            StdDraw.clear(new Color(0, 0, 0));
+            shown = new TETile[numXTiles][numYTiles];
+        }
+        StdDraw.setFont(TILE_FONT);
         for (int x = 0; x < numXTiles; x += 1) {
             for (int y = 0; y < numYTiles; y += 1) {
-                if (world[x][y] == null) {
-                    throw new IllegalArgumentException("Tile at position x=" + x + ", y=" + y
-                            + " is null.");
-                }
-                world[x][y].draw(x + xOffset, y + yOffset);
+                drawTile(world, x, y);
             }
         }
-        Font font = new Font("Monaco", Font.BOLD, 15);
-        StdDraw.setFont(font);
+        drawInfo(world, info);
+        StdDraw.show();
+    }
+
+    /**
+     * Renders only the given tiles of the 2d array and the info, the other tiles keep what is
+     * on the screen. If the last frame was not the same size, renders the whole frame.
+     * A tile is given by its index x * world[0].length + y of the array.
+     * @param world the 2D TETile[][] array to render
+     * @param tiles the indices of the tiles to render
+     * @param count the count of the indices
+     */
+    @Override
+    public void renderTiles(TETile[][] world, String info, int[] tiles, int count) {
+        if (!isShown(world)) {
+            renderFrame(world, info);
+            return;
+        }
+        int numYTiles = world[0].length;
+        StdDraw.setFont(TILE_FONT);
+        for (int i = 0; i < count; i += 1) {
+            drawTile(world, tiles[i] / numYTiles, tiles[i] % numYTiles);
+        }
+        drawInfo(world, info);
+        StdDraw.show();
+    }
+
+    /**
+     * Returns true if a frame of the same size as the world is on the screen.
+     */
+    private boolean isShown(TETile[][] world) {
+        return shown != null && shown.length == world.length && shown[0].length == world[0].length;
+    }
+
+    /**
+     * Draws the tile at the position if it is not the TETile on the screen.
+     */
+    private void drawTile(TETile[][] world, int x, int y) {
+        TETile tile = world[x][y];
+        if (tile == null) {
+            throw new IllegalArgumentException("Tile at position x=" + x + ", y=" + y
+                    + " is null.");
+        }
+        if (tile != shown[x][y]) {
+            tile.draw(x + xOffset, y + yOffset);
+            shown[x][y] = tile;
+        }
+    }
+
+    /**
+     * Clears the line of the info at the top of the window and draws the info, if it changed.
+     * The tiles under the cleared line, e.g. when yOffset moves the world up, are drawn again.
+     */
+    private void drawInfo(TETile[][] world, String info) {
+        if (info.equals(shownInfo)) {
+            return;
+        }
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.filledRectangle(width / 2.0, height - INFO_LINES / 2.0, width / 2.0, INFO_LINES / 2.0);
+        for (int x = 0; x < world.length; x += 1) {
+            for (int y = Math.max(0, height - INFO_LINES - yOffset); y < world[x].length; y += 1) {
+                shown[x][y] = null;
+                drawTile(world, x, y);
+            }
+        }
+        StdDraw.setFont(INFO_FONT);
         StdDraw.setPenColor(StdDraw.WHITE);
         StdDraw.textLeft(0, height - 1, info);
-        StdDraw.show();
+        shownInfo = info;
     }
 
     /**
@@ -105,6 +105,30 @@ public class TETile {
         return character;
     }
 
+    /**
+     * Color of the character of the tile.
+     * @return color of the character
+     */
+    public Color textColor() {
+        return textColor;
+    }
+
+    /**
+     * Color of the background of the tile.
+     * @return color of the background
+     */
+    public Color backgroundColor() {
+        return backgroundColor;
+    }
+
+    /**
+     * Full path to the image of the tile.
+     * @return path to the image, or null if the tile is drawn by its character
+     */
+    public String filepath() {
+        return filepath;
+    }
+
     /**
      * Description of the tile. Useful for displaying mouseover text or
      * testing that two tiles represent the same type of thing.
@@ -0,0 +1,63 @@
+package byow.TileEngine;
+
+/**
+ * A backend that renders a 2D TETile[][] array and a line of info to the screen.
+ * The game only talks to this interface, so a backend is chosen by its name.
+ */
+public interface TileRenderer {
+
+    /**
+     * The name of the backend that draws every tile by StdDraw.
+     */
+    String STD_DRAW = "stddraw";
+    /**
+     * The name of the backend that blits the tiles from a glyph atlas.
+     */
+    String ATLAS = "atlas";
+    /**
+     * The name of the backend that keeps the frame in memory without a window.
+     */
+    String HEADLESS = "headless";
+    /**
+     * The name of the backend that draws nothing.
+     */
+    String NONE = "none";
+
+    /**
+     * Opens the screen for a world of w by h tiles, and a line of info above the world.
+     * @param w width of the world in tiles
+     * @param h height of the world in tiles
+     */
+    void initialize(int w, int h);
+
+    /**
+     * Renders every tile of the 2d array and the info.
+     * @param world the 2D TETile[][] array to render
+     * @param info the info above the world
+     */
+    void renderFrame(TETile[][] world, String info);
+
+    /**
+     * Renders only the given tiles of the 2d array and the info, the other tiles keep what is
+     * on the screen. A tile is given by its index x * world[0].length + y of the array.
+     * @param world the 2D TETile[][] array to render
+     * @param info the info above the world
+     * @param tiles the indices of the tiles to render
+     * @param count the count of the indices
+     */
+    void renderTiles(TETile[][] world, String info, int[] tiles, int count);
+
+    /**
+     * Returns a new backend by its name.
+     * @param name the name of the backend
+     */
+    static TileRenderer create(String name) {
+        return switch (name) {
+            case STD_DRAW -> new TERenderer();
+            case ATLAS -> new AtlasRenderer();
+            case HEADLESS -> new HeadlessRenderer();
+            case NONE -> new NullRenderer();
+            default -> throw new IllegalArgumentException("Unknown renderer: " + name + ".");
+        };
+    }
+}